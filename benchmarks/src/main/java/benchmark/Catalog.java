@@ -0,0 +1,156 @@
+package benchmark;
+
+import model.Ailment;
+import model.Gender;
+import model.Patient;
+import model.Symptom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A reproducible, synthetic catalog of ailments and patients shared by every
+ * benchmark.
+ *
+ * <p> Every entity is given {@link #symptomsPerEntity} symptoms. Each symptom
+ * is drawn from the symptoms of the query entities with probability
+ * {@link #overlapRatio}, and uniformly from a vocabulary eight times larger
+ * otherwise, so that the ratio controls how similar the catalog is to the
+ * queries. The catalog is generated from a fixed seed, and so is identical
+ * across runs.
+ *
+ * @author Oliver Abdulrahim
+ */
+@State(Scope.Benchmark)
+public class Catalog {
+
+    /**
+     * The seed the catalog is generated from.
+     */
+    private static final long SEED = 0xCD55L;
+
+    /**
+     * The amount of ailments, and of patients, in the catalog.
+     */
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    /**
+     * The amount of symptoms of every entity.
+     */
+    @Param({"4", "16"})
+    public int symptomsPerEntity;
+
+    /**
+     * The probability that a symptom of a catalog entity is shared with the
+     * queries.
+     */
+    @Param({"0.1", "0.5"})
+    public double overlapRatio;
+
+    /**
+     * The ailments in the catalog.
+     */
+    public List<Ailment> ailments;
+
+    /**
+     * The patients in the catalog.
+     */
+    public List<Patient> patients;
+
+    /**
+     * The ailment every benchmark queries the catalog with.
+     */
+    public Ailment ailment;
+
+    /**
+     * The patient every benchmark queries the catalog with.
+     */
+    public Patient patient;
+
+    /**
+     * Generates the catalog and the query entities.
+     */
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(SEED);
+        Symptom[] vocabulary = new Symptom[Math.max(64, 8 * symptomsPerEntity)];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = new Symptom(i + 1, "Symptom " + (i + 1));
+        }
+
+        Set<Symptom> shared = new HashSet<>();
+        while (shared.size() < symptomsPerEntity) {
+            shared.add(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        Symptom[] common = shared.toArray(new Symptom[0]);
+
+        ailment = new Ailment(0, "Query");
+        ailment.setSymptoms(new HashSet<>(shared));
+        patient = patient(0, random);
+        patient.setAilments(new HashSet<>(shared));
+
+        ailments = new ArrayList<>(catalogSize);
+        patients = new ArrayList<>(catalogSize);
+        for (int id = 1; id <= catalogSize; id++) {
+            Ailment a = new Ailment(id, "Ailment " + id);
+            a.setSymptoms(symptoms(random, vocabulary, common));
+            ailments.add(a);
+
+            Patient p = patient(id, random);
+            p.setAilments(symptoms(random, vocabulary, common));
+            Set<Ailment> diagnosed = new HashSet<>();
+            diagnosed.add(a);
+            p.setSymptoms(diagnosed);
+            patients.add(p);
+        }
+    }
+
+    /**
+     * Returns a new patient with the given identification number and a random
+     * birth date and gender.
+     *
+     * @param id The identification number of the patient.
+     * @param random The source of randomness.
+     * @return A new patient.
+     */
+    private static Patient patient(int id, Random random) {
+        LocalDate birthDate = LocalDate.of(1930 + random.nextInt(85), 1, 1)
+                .plusDays(random.nextInt(365));
+        Gender gender = random.nextBoolean() ? Gender.MALE : Gender.FEMALE;
+        return new Patient(id, "Patient " + id, birthDate, gender);
+    }
+
+    /**
+     * Returns a new set of symptoms for a catalog entity.
+     *
+     * @param random The source of randomness.
+     * @param vocabulary Every symptom.
+     * @param common The symptoms of the query entities.
+     * @return A new set of symptoms.
+     */
+    private Set<Symptom> symptoms(
+            Random random,
+            Symptom[] vocabulary,
+            Symptom[] common)
+    {
+        Set<Symptom> symptoms = new HashSet<>();
+        while (symptoms.size() < symptomsPerEntity) {
+            Symptom[] from = random.nextDouble() < overlapRatio
+                    ? common
+                    : vocabulary;
+            symptoms.add(from[random.nextInt(from.length)]);
+        }
+        return symptoms;
+    }
+
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import model.Ailment;
+import model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link Ailment#compareTo(Ailment)} and
+ * {@link Patient#compareTo(Patient)}, comparing the query entity against every
+ * entity of the catalog per invocation.
+ *
+ * @author Oliver Abdulrahim
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompareBenchmark {
+
+    /**
+     * Compares the query ailment against every ailment of the catalog.
+     *
+     * @param catalog The catalog to compare against.
+     * @return The sum of the comparisons.
+     */
+    @Benchmark
+    public long ailmentCompareTo(Catalog catalog) {
+        long sum = 0;
+        for (Ailment a : catalog.ailments) {
+            sum += a.compareTo(catalog.ailment);
+        }
+        return sum;
+    }
+
+    /**
+     * Compares the query patient against every patient of the catalog.
+     *
+     * @param catalog The catalog to compare against.
+     * @return The sum of the comparisons.
+     */
+    @Benchmark
+    public long patientCompareTo(Catalog catalog) {
+        long sum = 0;
+        for (Patient p : catalog.patients) {
+            sum += p.compareTo(catalog.patient);
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import compute.Matcher;
+import compute.MeanSquaredErrorMatcher;
+import model.Ailment;
+import model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link MeanSquaredErrorMatcher#compute} over the
+ * whole catalog.
+ *
+ * @author Oliver Abdulrahim
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MatcherBenchmark {
+
+    /**
+     * The matcher for ailments.
+     */
+    private final Matcher<Ailment> ailments = new MeanSquaredErrorMatcher<>();
+
+    /**
+     * The matcher for patients.
+     */
+    private final Matcher<Patient> patients = new MeanSquaredErrorMatcher<>();
+
+    /**
+     * Selects the ailment in the catalog closest to the query ailment.
+     *
+     * @param catalog The catalog to search.
+     * @return The closest ailment.
+     */
+    @Benchmark
+    public Ailment computeAilment(Catalog catalog) {
+        return ailments.compute(catalog.ailments, catalog.ailment);
+    }
+
+    /**
+     * Selects the patient in the catalog closest to the query patient.
+     *
+     * @param catalog The catalog to search.
+     * @return The closest patient.
+     */
+    @Benchmark
+    public Patient computePatient(Catalog catalog) {
+        return patients.compute(catalog.patients, catalog.patient);
+    }
+
+}
@@ -0,0 +1,124 @@
+package benchmark;
+
+import model.Ailment;
+import model.Symptom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import util.stream.Streams;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the {@link Streams} operations.
+ *
+ * <p> The pairwise operations, {@code compare} and {@code intersection}, are
+ * applied to the symptoms of the query ailment and of every ailment in the
+ * catalog per invocation. The aggregate operations, {@code flatUnion},
+ * {@code occurrences}, {@code min} and {@code max}, are applied once to the
+ * symptoms of the whole catalog.
+ *
+ * @author Oliver Abdulrahim
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamsBenchmark {
+
+    /**
+     * Compares the symptoms of the query ailment to those of every ailment.
+     *
+     * @param catalog The catalog to compare against.
+     * @return The sum of the comparisons.
+     */
+    @Benchmark
+    public long compare(Catalog catalog) {
+        Set<Symptom> query = catalog.ailment.getSymptoms();
+        long sum = 0;
+        for (Ailment a : catalog.ailments) {
+            sum += Streams.compare(query, a.getSymptoms());
+        }
+        return sum;
+    }
+
+    /**
+     * Intersects the symptoms of the query ailment with those of every
+     * ailment.
+     *
+     * @param catalog The catalog to intersect with.
+     * @return The total size of the intersections.
+     */
+    @Benchmark
+    public long intersection(Catalog catalog) {
+        Set<Symptom> query = catalog.ailment.getSymptoms();
+        long sum = 0;
+        for (Ailment a : catalog.ailments) {
+            sum += Streams.intersection(
+                    query.stream(),
+                    a.getSymptoms().stream()).size();
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the union of the symptoms of every ailment.
+     *
+     * @param catalog The catalog to unify.
+     * @return The union of the symptoms.
+     */
+    @Benchmark
+    public Set<Symptom> flatUnion(Catalog catalog) {
+        return Streams.flatUnion(
+                catalog.ailments.stream(),
+                a -> a.getSymptoms().stream());
+    }
+
+    /**
+     * Counts the occurrences of every symptom across every ailment.
+     *
+     * @param catalog The catalog to count.
+     * @return The occurrences of every symptom.
+     */
+    @Benchmark
+    public Map<Symptom, Long> occurrences(Catalog catalog) {
+        return Streams.occurrences(catalog.ailments
+                .stream()
+                .flatMap(a -> a.getSymptoms().stream()));
+    }
+
+    /**
+     * Finds the least frequent symptom across every ailment.
+     *
+     * @param catalog The catalog to search.
+     * @return The least frequent symptom.
+     */
+    @Benchmark
+    public Optional<Symptom> min(Catalog catalog) {
+        return Streams.min(catalog.ailments
+                .stream()
+                .flatMap(a -> a.getSymptoms().stream()));
+    }
+
+    /**
+     * Finds the most frequent symptom across every ailment.
+     *
+     * @param catalog The catalog to search.
+     * @return The most frequent symptom.
+     */
+    @Benchmark
+    public Optional<Symptom> max(Catalog catalog) {
+        return Streams.max(catalog.ailments
+                .stream()
+                .flatMap(a -> a.getSymptoms().stream()));
+    }
+
+}
@@ -0,0 +1,108 @@
+package compute;
+
+import java.util.Collection;
+
+/**
+ * This class provides a skeletal implementation of the {@link Matcher}
+ * interface for matchers that precompute an index over their candidate pool.
+ *
+ * <p> The index is built once per candidate pool and is reused for as long as
+ * the same {@code Collection} instance is supplied to the matcher. Supplying a
+ * different instance rebuilds the index. Callers that mutate a pool in place
+ * must call {@link #invalidate()} afterwards.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @param <I> The type of the index built over the candidate pool.
+ * @author Oliver Abdulrahim
+ */
+public abstract class AbstractIndexedMatcher<T extends Comparable<? super T>, I>
+    implements Matcher<T>
+{
+
+    /**
+     * The most recently indexed candidate pool together with its index, or
+     * {@code null} if no pool has been indexed yet.
+     */
+    private volatile Indexed<I> indexed;
+
+    /**
+     * Sole constructor for use by subclasses only.
+     */
+    protected AbstractIndexedMatcher() {
+
+    }
+
+    /**
+     * Builds and returns a new index over the given candidate pool.
+     *
+     * @param data The candidate pool to index.
+     * @return A new index over the given candidate pool.
+     */
+    protected abstract I buildIndex(Collection<? extends T> data);
+
+    /**
+     * Returns the index for the given candidate pool, building it if the pool
+     * differs from the one most recently indexed.
+     *
+     * @param data The candidate pool whose index to return.
+     * @return The index for the given candidate pool.
+     */
+    protected I index(Collection<? extends T> data) {
+        Indexed<I> current = indexed;
+        if (current == null || current.source != data) {
+            current = new Indexed<>(data, buildIndex(data));
+            indexed = current;
+        }
+        return current.index;
+    }
+
+    /**
+     * Builds the index for the given candidate pool, unless it is the pool
+     * most recently indexed.
+     *
+     * @param data The candidate pool to prepare.
+     */
+    @Override
+    public void prepare(Collection<? extends T> data) {
+        index(data);
+    }
+
+    /**
+     * Discards the cached index, forcing it to be rebuilt on next use.
+     */
+    public void invalidate() {
+        indexed = null;
+    }
+
+    /**
+     * Associates a candidate pool with the index built over it.
+     *
+     * @param <I> The type of the index.
+     */
+    private static final class Indexed<I> {
+
+        /**
+         * The candidate pool that was indexed, compared by identity.
+         */
+        private final Collection<?> source;
+
+        /**
+         * The index built over {@link #source}.
+         */
+        private final I index;
+
+        /**
+         * Constructs an {@code Indexed} with the given arguments.
+         *
+         * @param source The candidate pool that was indexed.
+         * @param index The index built over the pool.
+         */
+        private Indexed(Collection<?> source, I index) {
+            this.source = source;
+            this.index = index;
+        }
+
+    }
+
+}
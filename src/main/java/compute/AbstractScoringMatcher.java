@@ -0,0 +1,218 @@
+package compute;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * This class provides a skeletal implementation of the {@link Matcher}
+ * interface for matchers that assign each candidate an independent score.
+ *
+ * <p> Subclasses need only implement {@link #score(Object, Object)}. Selection
+ * and ranking are both a single pass over the candidate pool; the pool is never
+ * sorted.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public abstract class AbstractScoringMatcher<T extends Comparable<? super T>>
+    implements Matcher<T>, Scorer<T>
+{
+
+    /**
+     * The amount of candidates scored against every query of a batch before
+     * moving on to the next candidates.
+     */
+    static final int BLOCK_SIZE = 512;
+
+    /**
+     * Sole constructor for use by subclasses only.
+     */
+    protected AbstractScoringMatcher() {
+
+    }
+
+    /**
+     * Selects and returns the highest-scoring object from the given collection.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        T best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (T candidate : data) {
+            double score = score(candidate, t);
+            if (best == null || score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects from the given collection.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates, best first.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        TopK<T> top = new TopK<>(k);
+        for (T candidate : data) {
+            top.offer(candidate, score(candidate, t));
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects from the given
+     * {@code Stream}, consuming it in a single pass.
+     *
+     * <p> Only the best {@code k} candidates seen so far are retained, so the
+     * memory used is independent of the amount of candidates. Paired with a
+     * lazily populated {@code Stream}, such as
+     * {@link sql.access.SQLAccessor#scan()}, candidates are scored as they
+     * are read. The given {@code Stream} is not closed.
+     *
+     * @param candidates The candidates to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates, best first.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<T> rank(Stream<? extends T> candidates, T t, int k) {
+        return rank(candidates, t, k, Integer.MAX_VALUE, ranking -> { });
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects from the given
+     * {@code Stream}, consuming it in a single pass, and reporting the best
+     * candidates found so far every {@code interval} candidates.
+     *
+     * <p> A report is only made if the best candidates changed since the
+     * previous one. Reports are made on the consuming thread, and so delay the
+     * scoring of the remaining candidates until they return.
+     *
+     * @param candidates The candidates to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @param interval The amount of candidates to score between reports.
+     * @param progress The action receiving each report.
+     * @return A {@code Ranking} of the best candidates, best first.
+     * @throws IllegalArgumentException if {@code k} is negative, or if
+     *         {@code interval} is not positive.
+     * @see #rank(Stream, Comparable, int)
+     */
+    public Ranking<T> rank(
+            Stream<? extends T> candidates,
+            T t,
+            int k,
+            int interval,
+            Consumer<? super Ranking<T>> progress)
+    {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval : " + interval);
+        }
+        TopK<T> top = new TopK<>(k);
+        Iterator<? extends T> it = candidates.iterator();
+        boolean changed = false;
+        int scored = 0;
+        while (it.hasNext()) {
+            T candidate = it.next();
+            changed |= top.offer(candidate, score(candidate, t));
+            if (++scored == interval) {
+                if (changed) {
+                    progress.accept(top.toRanking());
+                    changed = false;
+                }
+                scored = 0;
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Ranks the given candidate pool against every given query object.
+     *
+     * <p> Candidates are visited in blocks of {@value #BLOCK_SIZE}, and each
+     * block is scored against every query before the next block is visited, so
+     * that the candidates of a block stay in cache for the whole batch.
+     *
+     * @param data The candidate pool to be tested for similarity against each
+     *        query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return per query.
+     * @return A {@code List} containing a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     */
+    @Override
+    public List<Ranking<T>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        Object[] candidates = data.toArray();
+        Object[] ts = queries.toArray();
+        List<TopK<T>> tops =
+                rankBlocks(candidates, 0, candidates.length, ts, k);
+        List<Ranking<T>> rankings = new ArrayList<>(tops.size());
+        for (TopK<T> top : tops) {
+            rankings.add(top.toRanking());
+        }
+        return rankings;
+    }
+
+    /**
+     * Scores the given range of candidates against every given query, block by
+     * block, returning the best candidates for each query.
+     *
+     * @param candidates The candidates to score.
+     * @param from The first index of the range to score, inclusive.
+     * @param to The last index of the range to score, exclusive.
+     * @param queries The base objects to score the candidates against.
+     * @param k The maximum amount of candidates to retain per query.
+     * @return A {@code List} containing the best candidates for each query, in
+     *         the order of the given queries.
+     */
+    @SuppressWarnings("unchecked")
+    List<TopK<T>> rankBlocks(
+            Object[] candidates,
+            int from,
+            int to,
+            Object[] queries,
+            int k)
+    {
+        List<TopK<T>> tops = new ArrayList<>(queries.length);
+        for (int q = 0; q < queries.length; q++) {
+            tops.add(new TopK<>(k));
+        }
+        for (int block = from; block < to; block += BLOCK_SIZE) {
+            int end = Math.min(block + BLOCK_SIZE, to);
+            for (int q = 0; q < queries.length; q++) {
+                T t = (T) queries[q];
+                TopK<T> top = tops.get(q);
+                for (int i = block; i < end; i++) {
+                    T candidate = (T) candidates[i];
+                    top.offer(candidate, score(candidate, t));
+                }
+            }
+        }
+        return tops;
+    }
+
+}
@@ -0,0 +1,233 @@
+package compute;
+
+import util.primitive.Bits;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An implementation of the {@link Matcher} interface that answers within a
+ * latency budget, returning the best candidates found so far when the budget
+ * runs out.
+ *
+ * <p> Like a {@link BranchAndBoundMatcher}, this matcher visits candidates in
+ * descending order of the upper bound on their score, so the most promising
+ * ones are scored first, and stops as soon as no remaining candidate can enter
+ * the result. If the budget runs out before that, the search is abandoned and
+ * its result is {@link Ranking#isPartial() marked as partial}. Searches that
+ * finish within their budget are exact.
+ *
+ * <p> The budget covers indexing a new candidate pool as well as searching
+ * it, so a query against a pool that has not been
+ * {@link #prepare(Collection) prepared} is more likely to be cut short.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class AnytimeMatcher<T extends Comparable<? super T>>
+    extends BranchAndBoundMatcher<T>
+{
+
+    /**
+     * The default latency budget of a query, in nanoseconds.
+     */
+    private final long budget;
+
+    /**
+     * The amount of searches abandoned because their budget ran out.
+     */
+    private final LongAdder cutShort;
+
+    /**
+     * Constructs an {@code AnytimeMatcher} with the given arguments.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param bound The function returning the upper bound on the score each
+     *        candidate can achieve against any query.
+     * @param budget The default latency budget of a query.
+     * @param unit The unit of the given budget.
+     * @throws NullPointerException if any of the given objects is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the given budget is negative.
+     */
+    public AnytimeMatcher(
+            Scorer<? super T> scorer,
+            ToDoubleFunction<? super T> bound,
+            long budget,
+            TimeUnit unit)
+    {
+        this(scorer, bound, t -> Double.POSITIVE_INFINITY, budget, unit);
+    }
+
+    /**
+     * Constructs an {@code AnytimeMatcher} with the given arguments.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param bound The function returning the upper bound on the score each
+     *        candidate can achieve against any query.
+     * @param queryBound The function returning the upper bound on the score
+     *        any candidate can achieve against each query.
+     * @param budget The default latency budget of a query.
+     * @param unit The unit of the given budget.
+     * @throws NullPointerException if any of the given objects is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the given budget is negative.
+     */
+    public AnytimeMatcher(
+            Scorer<? super T> scorer,
+            ToDoubleFunction<? super T> bound,
+            ToDoubleFunction<? super T> queryBound,
+            long budget,
+            TimeUnit unit)
+    {
+        super(scorer, bound, queryBound);
+        this.budget = nanos(budget, unit);
+        this.cutShort = new LongAdder();
+    }
+
+    /**
+     * Returns an {@code AnytimeMatcher} that scores objects by the amount of
+     * bits their encodings share, bounded by the lesser of the amounts of bits
+     * in the encodings of the candidate and the query.
+     *
+     * @param bits The function returning the bit set encoding of an object.
+     * @param budget The default latency budget of a query.
+     * @param unit The unit of the given budget.
+     * @param <T> The type of the objects to match.
+     * @return An {@code AnytimeMatcher} over bit set overlap.
+     * @throws IllegalArgumentException if the given budget is negative.
+     * @see BranchAndBoundMatcher#overlap(Function)
+     */
+    public static <T extends Comparable<? super T>> AnytimeMatcher<T> overlap(
+            Function<? super T, long[]> bits,
+            long budget,
+            TimeUnit unit)
+    {
+        ToDoubleFunction<T> cardinality = t -> Bits.cardinality(bits.apply(t));
+        return new AnytimeMatcher<>(
+                Scorer.overlap(bits),
+                cardinality,
+                cardinality,
+                budget,
+                unit);
+    }
+
+    /**
+     * Returns the given budget in nanoseconds.
+     *
+     * @param budget The budget to convert.
+     * @param unit The unit of the given budget.
+     * @return The given budget in nanoseconds.
+     * @throws IllegalArgumentException if the given budget is negative.
+     */
+    private static long nanos(long budget, TimeUnit unit) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Budget : " + budget);
+        }
+        return unit.toNanos(budget);
+    }
+
+    /**
+     * Returns the default latency budget of a query, in the given unit.
+     *
+     * @param unit The unit to return the budget in.
+     * @return The default latency budget of a query.
+     */
+    public long budget(TimeUnit unit) {
+        return unit.convert(budget, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the amount of searches abandoned because their budget ran out.
+     *
+     * @return The amount of searches cut short.
+     */
+    public long cutShort() {
+        return cutShort.sum();
+    }
+
+    /**
+     * Returns the fraction of searches abandoned because their budget ran
+     * out, or {@code 0} if no searches have been performed.
+     *
+     * @return The fraction of searches cut short.
+     */
+    public double cutShortRate() {
+        long total = searches();
+        return total == 0 ? 0.0 : (double) cutShort.sum() / total;
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects in the given
+     * {@code Collection} found within the default budget.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates found, best first,
+     *         which is partial if the budget ran out.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        return search(data, t, k, System.nanoTime() + budget);
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects in the given
+     * {@code Collection} found within the given budget.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @param budget The latency budget of this query.
+     * @param unit The unit of the given budget.
+     * @return A {@code Ranking} of the best candidates found, best first,
+     *         which is partial if the budget ran out.
+     * @throws IllegalArgumentException if {@code k} or the given budget is
+     *         negative.
+     */
+    public Ranking<T> rank(
+            Collection<? extends T> data,
+            T t,
+            int k,
+            long budget,
+            TimeUnit unit)
+    {
+        return search(data, t, k, System.nanoTime() + nanos(budget, unit));
+    }
+
+    /**
+     * Searches the given candidate pool until the given deadline.
+     *
+     * @param data The candidate pool to search.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @param deadline The {@link System#nanoTime()} at which to abandon the
+     *        search.
+     * @return A {@code Ranking} of the best candidates found, best first,
+     *         which is partial if the search was abandoned.
+     */
+    private Ranking<T> search(
+            Collection<? extends T> data,
+            T t,
+            int k,
+            long deadline)
+    {
+        TopK<T> top = new TopK<>(k);
+        boolean complete = search(index(data), t, top,
+                () -> System.nanoTime() - deadline > 0);
+        if (complete) {
+            return top.toRanking();
+        }
+        cutShort.increment();
+        return top.toRanking().toPartial();
+    }
+
+}
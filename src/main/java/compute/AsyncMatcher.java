@@ -0,0 +1,124 @@
+package compute;
+
+import util.concurrent.BoundedExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the operations of a {@link Matcher} on a {@link BoundedExecutor},
+ * returning their results as {@code CompletableFuture}s instead of blocking
+ * the caller.
+ *
+ * <p> Cancelling a returned future before its operation starts skips the
+ * operation. Matchers do not check for interruption, so an operation that has
+ * already started runs to completion, but its result is discarded.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public final class AsyncMatcher<T extends Comparable<? super T>> {
+
+    /**
+     * The matcher whose operations to run.
+     */
+    private final Matcher<T> matcher;
+
+    /**
+     * The executor running the operations.
+     */
+    private final BoundedExecutor executor;
+
+    /**
+     * Constructs an {@code AsyncMatcher} with the given arguments.
+     *
+     * @param matcher The matcher whose operations to run.
+     * @param executor The executor running the operations.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public AsyncMatcher(Matcher<T> matcher, BoundedExecutor executor) {
+        this.matcher = Objects.requireNonNull(matcher);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Returns the matcher whose operations this object runs.
+     *
+     * @return The underlying matcher.
+     */
+    public Matcher<T> matcher() {
+        return matcher;
+    }
+
+    /**
+     * Asynchronously selects the object in the given {@code Collection} that
+     * is closest to the given one.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return A future completed with the closest object, or with
+     *         {@code null} if the collection is empty.
+     * @see Matcher#compute(Collection, Comparable)
+     */
+    public CompletableFuture<T> compute(Collection<? extends T> data, T t) {
+        return executor.submit(() -> matcher.compute(data, t));
+    }
+
+    /**
+     * Asynchronously ranks the {@code k} objects in the given
+     * {@code Collection} that are closest to the given one.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A future completed with a {@code Ranking} of the best
+     *         candidates.
+     * @see Matcher#rank(Collection, Comparable, int)
+     */
+    public CompletableFuture<Ranking<T>> rank(
+            Collection<? extends T> data,
+            T t,
+            int k)
+    {
+        return executor.submit(() -> matcher.rank(data, t, k));
+    }
+
+    /**
+     * Asynchronously ranks the {@code k} objects in the given
+     * {@code Collection} that are closest to each of the given queries.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        each query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return for each query.
+     * @return A future completed with a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     * @see Matcher#rankAll(Collection, Collection, int)
+     */
+    public CompletableFuture<List<Ranking<T>>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        return executor.submit(() -> matcher.rankAll(data, queries, k));
+    }
+
+    /**
+     * Asynchronously prepares the underlying matcher for the given candidate
+     * pool.
+     *
+     * @param data The candidate pool to prepare.
+     * @return A future completed once the matcher is prepared.
+     * @see Matcher#prepare(Collection)
+     */
+    public CompletableFuture<Void> prepare(Collection<? extends T> data) {
+        return executor.run(() -> matcher.prepare(data));
+    }
+
+}
@@ -0,0 +1,323 @@
+package compute;
+
+import util.primitive.Bits;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An exact implementation of the {@link Matcher} interface that stops scoring
+ * candidates once none of the remaining ones can enter the result.
+ *
+ * <p> Every candidate is given an upper bound on the score it can achieve
+ * against any query, such as the size of its symptom set when candidates are
+ * scored by symptom overlap. Every query may likewise be given an upper bound
+ * on the score any candidate can achieve against it, such as the size of its
+ * own symptom set. When the candidate pool is indexed, candidates are sorted
+ * in descending order of their bound. A query visits them in that order, and
+ * stops as soon as the lesser of the bound of the next candidate and the
+ * bound of the query does not exceed the score of the {@code k}-th best
+ * candidate found so far, since neither it nor any candidate after it can
+ * displace that one. The more skewed the bounds, and the smaller the query,
+ * the more of the pool is never scored.
+ *
+ * <p> The result is only exact if every bound really is an upper bound on the
+ * scores it applies to.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class BranchAndBoundMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, BranchAndBoundMatcher.Order>
+{
+
+    /**
+     * The amount of candidates scored between checks of the stopping
+     * condition of a search.
+     */
+    static final int CHECK_INTERVAL = 64;
+
+    /**
+     * The function scoring each candidate.
+     */
+    private final Scorer<? super T> scorer;
+
+    /**
+     * The function returning the upper bound on the score of each candidate.
+     */
+    private final ToDoubleFunction<? super T> bound;
+
+    /**
+     * The function returning the upper bound on the score of any candidate
+     * against each query.
+     */
+    private final ToDoubleFunction<? super T> queryBound;
+
+    /**
+     * The amount of searches performed.
+     */
+    private final LongAdder searches;
+
+    /**
+     * The amount of candidates in the pools searched, summed over every
+     * search.
+     */
+    private final LongAdder candidates;
+
+    /**
+     * The amount of candidates scored, summed over every search.
+     */
+    private final LongAdder scored;
+
+    /**
+     * Constructs a {@code BranchAndBoundMatcher} with the given arguments.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param bound The function returning the upper bound on the score each
+     *        candidate can achieve against any query.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public BranchAndBoundMatcher(
+            Scorer<? super T> scorer,
+            ToDoubleFunction<? super T> bound)
+    {
+        this(scorer, bound, t -> Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Constructs a {@code BranchAndBoundMatcher} with the given arguments.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param bound The function returning the upper bound on the score each
+     *        candidate can achieve against any query.
+     * @param queryBound The function returning the upper bound on the score
+     *        any candidate can achieve against each query.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public BranchAndBoundMatcher(
+            Scorer<? super T> scorer,
+            ToDoubleFunction<? super T> bound,
+            ToDoubleFunction<? super T> queryBound)
+    {
+        this.scorer = Objects.requireNonNull(scorer);
+        this.bound = Objects.requireNonNull(bound);
+        this.queryBound = Objects.requireNonNull(queryBound);
+        this.searches = new LongAdder();
+        this.candidates = new LongAdder();
+        this.scored = new LongAdder();
+    }
+
+    /**
+     * Returns a {@code BranchAndBoundMatcher} that scores objects by the
+     * amount of bits their encodings share, bounded by the lesser of the
+     * amounts of bits in the encodings of the candidate and the query. This
+     * applies equally to ailments and patients, for example
+     * {@code overlap(Patient :: symptomBits)}.
+     *
+     * @param bits The function returning the bit set encoding of an object.
+     * @param <T> The type of the objects to match.
+     * @return A {@code BranchAndBoundMatcher} over bit set overlap.
+     * @see Scorer#overlap(Function)
+     */
+    public static <T extends Comparable<? super T>>
+            BranchAndBoundMatcher<T> overlap(Function<? super T, long[]> bits)
+    {
+        ToDoubleFunction<T> cardinality = t -> Bits.cardinality(bits.apply(t));
+        return new BranchAndBoundMatcher<>(
+                Scorer.overlap(bits),
+                cardinality,
+                cardinality);
+    }
+
+    /**
+     * Returns the amount of searches performed by this matcher.
+     *
+     * @return The amount of searches performed.
+     */
+    public long searches() {
+        return searches.sum();
+    }
+
+    /**
+     * Returns the fraction of candidates that searches did not need to score,
+     * or {@code 0} if no candidates have been searched.
+     *
+     * @return The fraction of candidates pruned.
+     */
+    public double pruned() {
+        long total = candidates.sum();
+        return total == 0 ? 0.0 : 1.0 - (double) scored.sum() / total;
+    }
+
+    /**
+     * Sorts the candidates of the given pool in descending order of their
+     * bound.
+     *
+     * <p> Each bound is replaced by its rank among the sorted bounds, which is
+     * packed with the slot of its candidate into a single {@code long}, so
+     * that the candidates are ordered by one primitive sort.
+     *
+     * @param data The candidate pool to index.
+     * @return The ordered candidates of the given pool.
+     */
+    @Override
+    protected Order buildIndex(Collection<? extends T> data) {
+        Object[] unordered = data.toArray();
+        int n = unordered.length;
+        double[] unorderedBounds = new double[n];
+        for (int slot = 0; slot < n; slot++) {
+            @SuppressWarnings("unchecked")
+            T candidate = (T) unordered[slot];
+            unorderedBounds[slot] = bound.applyAsDouble(candidate);
+        }
+        double[] sorted = unorderedBounds.clone();
+        Arrays.sort(sorted);
+        long[] keys = new long[n];
+        for (int slot = 0; slot < n; slot++) {
+            int rank = Arrays.binarySearch(sorted, unorderedBounds[slot]);
+            keys[slot] = pack(n - 1 - rank, slot);
+        }
+        Arrays.sort(keys);
+
+        Object[] ordered = new Object[n];
+        double[] bounds = new double[n];
+        for (int i = 0; i < n; i++) {
+            int slot = (int) keys[i];
+            ordered[i] = unordered[slot];
+            bounds[i] = unorderedBounds[slot];
+        }
+        return new Order(ordered, bounds);
+    }
+
+    /**
+     * Packs the given rank and slot into a single {@code long}, such that
+     * packed values sort by rank, then by slot.
+     *
+     * @param rank The rank of the bound of the candidate, least first.
+     * @param slot The slot of the candidate.
+     * @return The packed rank and slot.
+     */
+    private static long pack(int rank, int slot) {
+        return ((long) rank << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Selects the highest-scoring object in the given {@code Collection}.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects in the given
+     * {@code Collection}, scoring only as many candidates as needed.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates, best first.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        TopK<T> top = new TopK<>(k);
+        search(index(data), t, top, () -> false);
+        return top.toRanking();
+    }
+
+    /**
+     * Offers the given candidates to the given {@code TopK} in descending
+     * order of their bound, until no remaining candidate can be retained,
+     * given its bound and that of the query, or the given condition holds.
+     * The condition is checked every {@value #CHECK_INTERVAL} candidates.
+     *
+     * @param order The ordered candidates to search.
+     * @param t The base object to test.
+     * @param top The best candidates found so far.
+     * @param stop The condition under which to abandon the search.
+     * @return {@code true} if the search completed, and {@code top} holds the
+     *         exact result, or {@code false} if it was abandoned.
+     */
+    @SuppressWarnings("unchecked")
+    protected final boolean search(
+            Order order,
+            T t,
+            TopK<T> top,
+            BooleanSupplier stop)
+    {
+        Object[] ordered = order.candidates;
+        double[] bounds = order.bounds;
+        double cap = queryBound.applyAsDouble(t);
+        boolean complete = true;
+        int i = 0;
+        for (; i < ordered.length; i++) {
+            if (Math.min(bounds[i], cap) <= top.threshold()) {
+                break;
+            }
+            if (i > 0 && i % CHECK_INTERVAL == 0 && stop.getAsBoolean()) {
+                complete = false;
+                break;
+            }
+            T candidate = (T) ordered[i];
+            top.offer(candidate, scorer.score(candidate, t));
+        }
+        searches.increment();
+        candidates.add(ordered.length);
+        scored.add(i);
+        return complete;
+    }
+
+    /**
+     * The candidates of a pool, sorted in descending order of their bound.
+     */
+    static final class Order {
+
+        /**
+         * The candidates, in descending order of their bound.
+         */
+        private final Object[] candidates;
+
+        /**
+         * The bound of each candidate, in descending order.
+         */
+        private final double[] bounds;
+
+        /**
+         * Constructs an {@code Order} with the given arguments.
+         *
+         * @param candidates The candidates, in descending order of bound.
+         * @param bounds The bound of each candidate, in descending order.
+         */
+        private Order(Object[] candidates, double[] bounds) {
+            this.candidates = candidates;
+            this.bounds = bounds;
+        }
+
+        /**
+         * Returns the amount of ordered candidates.
+         *
+         * @return The amount of ordered candidates.
+         */
+        int size() {
+            return candidates.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,477 @@
+package compute;
+
+import model.Symptom;
+import sql.access.AccessorListener;
+import util.primitive.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A {@link Matcher} that decorates another, serving repeated queries with the
+ * same symptoms from a size-bounded cache of previous results.
+ *
+ * <p> Queries are keyed by a 64-bit fingerprint of their sorted, distinct
+ * symptom identification numbers, so that any two objects presenting the same
+ * symptoms share an entry regardless of their other properties. The numbers
+ * themselves are stored alongside each entry, and a fingerprint collision is
+ * treated as a miss. Entries are evicted in least-recently-used order once
+ * the cache holds its capacity.
+ *
+ * <p> Results are only valid for the candidate pool they were computed over.
+ * The cache is therefore cleared whenever a different pool instance is
+ * supplied, whenever {@link #invalidate()} is called, and whenever an accessor
+ * this object is {@link sql.access.BaseAccessor#addListener(AccessorListener)
+ * registered with} writes to the database, such as when the ailment catalog
+ * changes.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class CachingMatcher<T extends Comparable<? super T>>
+    implements Matcher<T>, AccessorListener<Object>
+{
+
+    /**
+     * The default maximum amount of cached results.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * The matcher computing the results that are not cached.
+     */
+    private final Matcher<T> delegate;
+
+    /**
+     * The function returning the symptoms of an object.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The maximum amount of cached results.
+     */
+    private final int capacity;
+
+    /**
+     * The cached results by fingerprint, in access order. Guarded by itself.
+     */
+    private final LinkedHashMap<Long, Cached> cache;
+
+    /**
+     * The candidate pool the cached results were computed over, compared by
+     * identity. Guarded by {@link #cache}.
+     */
+    private Collection<?> source;
+
+    /**
+     * Incremented whenever the cache is cleared, so that results computed
+     * before the clear are not stored after it. Guarded by {@link #cache}.
+     */
+    private long generation;
+
+    /**
+     * The amount of queries served from the cache.
+     */
+    private final LongAdder hits;
+
+    /**
+     * The amount of queries computed by the delegate.
+     */
+    private final LongAdder misses;
+
+    /**
+     * The amount of results evicted to make room for newer ones.
+     */
+    private final LongAdder evictions;
+
+    /**
+     * Constructs a {@code CachingMatcher} with the default capacity.
+     *
+     * @param delegate The matcher computing the results that are not cached.
+     * @param symptoms The function returning the symptoms of an object.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public CachingMatcher(
+            Matcher<T> delegate,
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this(delegate, symptoms, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@code CachingMatcher} with the given arguments.
+     *
+     * @param delegate The matcher computing the results that are not cached.
+     * @param symptoms The function returning the symptoms of an object.
+     * @param capacity The maximum amount of cached results.
+     * @throws NullPointerException if any of the given objects is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the given capacity is not positive.
+     */
+    public CachingMatcher(
+            Matcher<T> delegate,
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            int capacity)
+    {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity : " + capacity);
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.capacity = capacity;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.cache = new LinkedHashMap<Long, Cached>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> e) {
+                if (size() > CachingMatcher.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the maximum amount of cached results.
+     *
+     * @return The maximum amount of cached results.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the amount of currently cached results.
+     *
+     * @return The amount of currently cached results.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Returns the amount of queries served from the cache.
+     *
+     * @return The amount of cache hits.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the amount of queries computed by the delegate.
+     *
+     * @return The amount of cache misses.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the amount of results evicted to make room for newer ones.
+     *
+     * @return The amount of evictions.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of queries served from the cache, or {@code 0} if
+     * there have been no queries.
+     *
+     * @return The cache hit rate.
+     */
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Discards every cached result. The counters are not reset.
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+            generation++;
+        }
+    }
+
+    /**
+     * Discards every cached result after an object is inserted.
+     *
+     * @param t The object that was inserted.
+     */
+    @Override
+    public void inserted(Object t) {
+        invalidate();
+    }
+
+    /**
+     * Discards every cached result after an object is updated.
+     *
+     * @param t The object containing the updated data.
+     */
+    @Override
+    public void updated(Object t) {
+        invalidate();
+    }
+
+    /**
+     * Discards every cached result after an object is deleted.
+     *
+     * @param t The object that was deleted.
+     */
+    @Override
+    public void deleted(Object t) {
+        invalidate();
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} that is closest to
+     * the given one, consulting the cache first.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} closest to
+     * the given one, consulting the cache first.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        int[] ids = SymptomSearch.ids(symptoms.apply(t));
+        long fingerprint = Hashing.hash(ids, 0, ids.length);
+        long stamp = lookup(data);
+        Ranking<T> cached = get(fingerprint, ids, k);
+        if (cached != null) {
+            return cached;
+        }
+        Ranking<T> ranking = delegate.rank(data, t, k);
+        put(stamp, fingerprint, ids, k, ranking);
+        return ranking;
+    }
+
+    /**
+     * Ranks the given candidate pool against every given query object,
+     * serving cached queries from the cache and passing the rest to the
+     * delegate as a single batch.
+     *
+     * @param data The candidate pool to be tested for similarity against each
+     *        query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return per query.
+     * @return A {@code List} containing a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public List<Ranking<T>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        long stamp = lookup(data);
+        List<Ranking<T>> rankings = new ArrayList<>(queries.size());
+        List<T> missed = new ArrayList<>();
+        List<int[]> missedIds = new ArrayList<>();
+        List<Integer> missedAt = new ArrayList<>();
+        for (T query : queries) {
+            int[] ids = SymptomSearch.ids(symptoms.apply(query));
+            Ranking<T> cached = get(Hashing.hash(ids, 0, ids.length), ids, k);
+            if (cached == null) {
+                missed.add(query);
+                missedIds.add(ids);
+                missedAt.add(rankings.size());
+            }
+            rankings.add(cached);
+        }
+        if (!missed.isEmpty()) {
+            List<Ranking<T>> computed = delegate.rankAll(data, missed, k);
+            for (int i = 0; i < computed.size(); i++) {
+                int[] ids = missedIds.get(i);
+                Ranking<T> ranking = computed.get(i);
+                put(stamp, Hashing.hash(ids, 0, ids.length), ids, k, ranking);
+                rankings.set(missedAt.get(i), ranking);
+            }
+        }
+        return rankings;
+    }
+
+    /**
+     * Prepares the delegate for the given candidate pool, clearing the cache
+     * if the pool differs from the one the cached results were computed over.
+     *
+     * @param data The candidate pool to prepare.
+     */
+    @Override
+    public void prepare(Collection<? extends T> data) {
+        lookup(data);
+        delegate.prepare(data);
+    }
+
+    /**
+     * Clears the cache if the given candidate pool differs from the one the
+     * cached results were computed over, then returns the current generation.
+     *
+     * @param data The candidate pool about to be queried.
+     * @return The generation of the cache for the given pool.
+     */
+    private long lookup(Collection<?> data) {
+        synchronized (cache) {
+            if (source != data) {
+                cache.clear();
+                generation++;
+                source = data;
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Returns the cached result for the given symptoms, limited to {@code k}
+     * candidates, or {@code null} if no cached result covers them. Updates the
+     * hit and miss counters.
+     *
+     * @param fingerprint The fingerprint of the given symptoms.
+     * @param ids The sorted, distinct symptom identification numbers.
+     * @param k The maximum amount of candidates to return.
+     * @return The cached result, or {@code null} on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    private Ranking<T> get(long fingerprint, int[] ids, int k) {
+        Cached entry;
+        synchronized (cache) {
+            entry = cache.get(fingerprint);
+        }
+        if (entry != null && entry.covers(ids, k)) {
+            hits.increment();
+            return ((Ranking<T>) entry.ranking).limit(k);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the given result, unless it is partial, the cache was cleared
+     * since the given generation, or the cache already holds a result for at
+     * least as many candidates.
+     *
+     * @param stamp The generation the result was computed in.
+     * @param fingerprint The fingerprint of the given symptoms.
+     * @param ids The sorted, distinct symptom identification numbers.
+     * @param k The amount of candidates that was requested.
+     * @param ranking The result to cache.
+     */
+    private void put(
+            long stamp,
+            long fingerprint,
+            int[] ids,
+            int k,
+            Ranking<T> ranking)
+    {
+        if (ranking.isPartial()) {
+            return;
+        }
+        synchronized (cache) {
+            if (stamp != generation) {
+                return;
+            }
+            Cached existing = cache.get(fingerprint);
+            if (existing == null || !existing.covers(ids, k)) {
+                cache.put(fingerprint, new Cached(ids, k, ranking));
+            }
+        }
+    }
+
+    /**
+     * A cached result, together with the query symptoms and the amount of
+     * candidates it was computed for.
+     */
+    private static final class Cached {
+
+        /**
+         * The sorted, distinct symptom identification numbers of the query.
+         */
+        private final int[] ids;
+
+        /**
+         * The amount of candidates that was requested.
+         */
+        private final int k;
+
+        /**
+         * The cached result.
+         */
+        private final Ranking<?> ranking;
+
+        /**
+         * Constructs a {@code Cached} with the given arguments.
+         *
+         * @param ids The sorted, distinct symptom identification numbers.
+         * @param k The amount of candidates that was requested.
+         * @param ranking The cached result.
+         */
+        private Cached(int[] ids, int k, Ranking<?> ranking) {
+            this.ids = ids;
+            this.k = k;
+            this.ranking = ranking;
+        }
+
+        /**
+         * Returns {@code true} if this entry answers a query with the given
+         * symptoms for the given amount of candidates. A result holding fewer
+         * candidates than were requested holds the entire pool, and so answers
+         * any amount.
+         *
+         * @param query The sorted, distinct symptom identification numbers.
+         * @param limit The amount of candidates requested.
+         * @return {@code true} if this entry answers the query, {@code false}
+         *         otherwise.
+         */
+        private boolean covers(int[] query, int limit) {
+            return Arrays.equals(ids, query)
+                    && (limit <= k || ranking.size() < k);
+        }
+
+    }
+
+}
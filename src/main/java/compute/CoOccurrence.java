@@ -0,0 +1,254 @@
+package compute;
+
+import model.Ailment;
+import model.Patient;
+import model.Symptom;
+import model.SymptomDictionary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An immutable table of how often each pair of symptoms appears together,
+ * indexed by the dense index each symptom is assigned in the
+ * {@link SymptomDictionary}.
+ *
+ * <p> Counts are symmetric, so only the upper triangle of the matrix,
+ * diagonal included, is stored, row after row in a single {@code int} array.
+ * The diagonal holds the amount of documents containing each symptom.
+ *
+ * <p> Documents are typically the symptom sets of every ailment, as stored in
+ * the ailment-symptom table, and of every patient. Rows are counted in
+ * parallel, each from the documents containing its symptom, so that no two
+ * threads ever write the same count.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class CoOccurrence {
+
+    /**
+     * The largest amount of symptoms whose triangle fits in an array.
+     */
+    private static final int MAX_SYMPTOMS = 65_535;
+
+    /**
+     * The amount of symptoms in the table.
+     */
+    private final int n;
+
+    /**
+     * The upper triangle of the matrix, row after row.
+     */
+    private final int[] counts;
+
+    /**
+     * The amount of documents the table was built from.
+     */
+    private final long documents;
+
+    /**
+     * Constructs a {@code CoOccurrence} with the given arguments.
+     *
+     * @param n The amount of symptoms in the table.
+     * @param counts The upper triangle of the matrix, row after row.
+     * @param documents The amount of documents the table was built from.
+     */
+    private CoOccurrence(int n, int[] counts, long documents) {
+        this.n = n;
+        this.counts = counts;
+        this.documents = documents;
+    }
+
+    /**
+     * Returns a {@code CoOccurrence} counting the symptom pairs of the given
+     * ailments and patients.
+     *
+     * @param ailments The ailments whose symptom sets to count.
+     * @param patients The patients whose symptom sets to count.
+     * @return The co-occurrences of the symptoms of the given ailments and
+     *         patients.
+     */
+    public static CoOccurrence of(
+            Collection<? extends Ailment> ailments,
+            Collection<? extends Patient> patients)
+    {
+        return of(Stream.concat(
+                ailments.stream().map(Ailment :: getSymptoms),
+                patients.stream().map(Patient :: getSymptoms)));
+    }
+
+    /**
+     * Returns a {@code CoOccurrence} counting the symptom pairs of the given
+     * documents.
+     *
+     * @param documents The symptom sets to count.
+     * @return The co-occurrences of the symptoms in the given documents.
+     * @throws IllegalArgumentException if the documents contain more symptoms
+     *         than can be counted.
+     */
+    public static CoOccurrence of(
+            Stream<? extends Collection<Symptom>> documents)
+    {
+        List<int[]> encoded = new ArrayList<>();
+        Iterator<? extends Collection<Symptom>> it = documents.iterator();
+        while (it.hasNext()) {
+            encoded.add(SymptomDictionary.indices(it.next()));
+        }
+        int n = SymptomDictionary.size();
+        if (n > MAX_SYMPTOMS) {
+            throw new IllegalArgumentException("Symptoms : " + n);
+        }
+
+        int[][] postings = postings(encoded, n);
+        int[] counts = new int[offset(n, n)];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int base = offset(i, n) - i;
+            for (int d : postings[i]) {
+                int[] document = encoded.get(d);
+                int j = 0;
+                while (document[j] < i) {
+                    j++;
+                }
+                for (; j < document.length; j++) {
+                    counts[base + document[j]]++;
+                }
+            }
+        });
+        return new CoOccurrence(n, counts, encoded.size());
+    }
+
+    /**
+     * Returns, for every symptom, the ascending positions of the given
+     * documents containing it.
+     *
+     * @param documents The encoded documents.
+     * @param n The amount of symptoms.
+     * @return The positions of the documents containing each symptom.
+     */
+    private static int[][] postings(List<int[]> documents, int n) {
+        int[] sizes = new int[n];
+        for (int[] document : documents) {
+            for (int index : document) {
+                sizes[index]++;
+            }
+        }
+        int[][] postings = new int[n][];
+        for (int i = 0; i < n; i++) {
+            postings[i] = new int[sizes[i]];
+            sizes[i] = 0;
+        }
+        for (int d = 0; d < documents.size(); d++) {
+            for (int index : documents.get(d)) {
+                postings[index][sizes[index]++] = d;
+            }
+        }
+        return postings;
+    }
+
+    /**
+     * Returns the position of the first count of the given row of a triangle
+     * over the given amount of symptoms. The position of row {@code n} is the
+     * size of the triangle.
+     *
+     * @param row The row whose position to return.
+     * @param n The amount of symptoms.
+     * @return The position of the first count of the given row.
+     */
+    private static int offset(int row, int n) {
+        return (int) ((long) row * n - (long) row * (row - 1) / 2);
+    }
+
+    /**
+     * Returns the amount of symptoms in this table.
+     *
+     * @return The amount of symptoms counted.
+     */
+    public int symptoms() {
+        return n;
+    }
+
+    /**
+     * Returns the amount of documents this table was built from.
+     *
+     * @return The amount of documents counted.
+     */
+    public long documents() {
+        return documents;
+    }
+
+    /**
+     * Returns the amount of documents containing both symptoms with the given
+     * dense indices, or {@code 0} if either is not in this table.
+     *
+     * @param i The dense index of the first symptom.
+     * @param j The dense index of the second symptom.
+     * @return The amount of documents containing both symptoms.
+     */
+    public int count(int i, int j) {
+        if (i > j) {
+            int swap = i;
+            i = j;
+            j = swap;
+        }
+        if (i < 0 || j >= n) {
+            return 0;
+        }
+        return counts[offset(i, n) + j - i];
+    }
+
+    /**
+     * Returns the amount of documents containing both given symptoms.
+     *
+     * @param first The first symptom.
+     * @param second The second symptom.
+     * @return The amount of documents containing both symptoms.
+     */
+    public int count(Symptom first, Symptom second) {
+        return count(SymptomDictionary.find(first.getID()),
+                SymptomDictionary.find(second.getID()));
+    }
+
+    /**
+     * Returns the amount of documents containing the symptom with the given
+     * dense index.
+     *
+     * @param i The dense index of the symptom.
+     * @return The amount of documents containing the symptom.
+     */
+    public int frequency(int i) {
+        return count(i, i);
+    }
+
+    /**
+     * Returns the fraction of documents containing the symptom with dense
+     * index {@code i} that also contain the one with dense index {@code j},
+     * or {@code 0} if no document contains the former.
+     *
+     * @param i The dense index of the symptom known to be present.
+     * @param j The dense index of the symptom whose probability to return.
+     * @return The conditional probability of {@code j} given {@code i}.
+     */
+    public double conditional(int i, int j) {
+        int frequency = frequency(i);
+        return frequency == 0 ? 0.0 : (double) count(i, j) / frequency;
+    }
+
+    /**
+     * Returns the ratio of how often the symptoms with the given dense indices
+     * appear together to how often they would if they were independent, or
+     * {@code 0} if either never appears.
+     *
+     * @param i The dense index of the first symptom.
+     * @param j The dense index of the second symptom.
+     * @return The lift of the given symptoms.
+     */
+    public double lift(int i, int j) {
+        long product = (long) frequency(i) * frequency(j);
+        return product == 0 ? 0.0 : (double) count(i, j) * documents / product;
+    }
+
+}
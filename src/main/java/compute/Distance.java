@@ -0,0 +1,86 @@
+package compute;
+
+/**
+ * Enumeration of distance functions between dense feature vectors.
+ *
+ * <p> Every function compares a row of a flat, row-major matrix against a
+ * query vector of the same length, in a single branch-free loop over both
+ * arrays.
+ *
+ * @author Oliver Abdulrahim
+ */
+public enum Distance {
+
+    /**
+     * The mean of the squared differences between the vectors.
+     */
+    MEAN_SQUARED {
+        @Override
+        public double between(float[] rows, int offset, float[] query) {
+            return squared(rows, offset, query) / Math.max(query.length, 1);
+        }
+    },
+
+    /**
+     * The Euclidean length of the difference between the vectors.
+     */
+    EUCLIDEAN {
+        @Override
+        public double between(float[] rows, int offset, float[] query) {
+            return Math.sqrt(squared(rows, offset, query));
+        }
+    },
+
+    /**
+     * One minus the cosine of the angle between the vectors. Zero vectors are
+     * at distance one from every vector.
+     */
+    COSINE {
+        @Override
+        public double between(float[] rows, int offset, float[] query) {
+            double dot = 0.0;
+            double rowNorm = 0.0;
+            double queryNorm = 0.0;
+            for (int i = 0; i < query.length; i++) {
+                float r = rows[offset + i];
+                float q = query[i];
+                dot += r * q;
+                rowNorm += r * r;
+                queryNorm += q * q;
+            }
+            double norms = Math.sqrt(rowNorm * queryNorm);
+            return norms == 0.0 ? 1.0 : 1.0 - dot / norms;
+        }
+    };
+
+    /**
+     * Returns the distance between the given query vector and the row of the
+     * given matrix starting at the given offset, whose length is that of the
+     * query.
+     *
+     * @param rows The flat, row-major matrix containing the row.
+     * @param offset The index of the first element of the row.
+     * @param query The query vector.
+     * @return The distance between the row and the query vector.
+     */
+    public abstract double between(float[] rows, int offset, float[] query);
+
+    /**
+     * Returns the sum of the squared differences between the given query
+     * vector and the row of the given matrix starting at the given offset.
+     *
+     * @param rows The flat, row-major matrix containing the row.
+     * @param offset The index of the first element of the row.
+     * @param query The query vector.
+     * @return The sum of the squared differences.
+     */
+    private static double squared(float[] rows, int offset, float[] query) {
+        double sum = 0.0;
+        for (int i = 0; i < query.length; i++) {
+            float d = rows[offset + i] - query[i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+}
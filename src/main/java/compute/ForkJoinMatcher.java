@@ -0,0 +1,315 @@
+package compute;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An implementation of the {@link Matcher} interface that scores a candidate
+ * pool in parallel on a {@link ForkJoinPool}.
+ *
+ * <p> The pool is split recursively into chunks of at most
+ * {@link #threshold()} candidates. Each chunk is scored by a single worker into
+ * its own {@link TopK}, and the partial results are merged as the tasks join,
+ * so no lock is taken while scoring. Batches of queries are split the same way,
+ * with each worker scoring its chunk against every query of the batch.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class ForkJoinMatcher<T extends Comparable<? super T>>
+    extends AbstractScoringMatcher<T>
+    implements AutoCloseable
+{
+
+    /**
+     * The default maximum amount of candidates scored by a single task.
+     */
+    public static final int DEFAULT_THRESHOLD = 2048;
+
+    /**
+     * The function scoring each candidate.
+     */
+    private final Scorer<? super T> scorer;
+
+    /**
+     * The pool on which candidates are scored.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Whether {@link #pool} was created by, and should be shut down by, this
+     * object.
+     */
+    private final boolean ownsPool;
+
+    /**
+     * The maximum amount of candidates scored by a single task.
+     */
+    private final int threshold;
+
+    /**
+     * Constructs a {@code ForkJoinMatcher} that scores candidates on the
+     * common pool.
+     *
+     * @param scorer The function scoring each candidate.
+     * @throws NullPointerException if the given argument is {@code null}.
+     */
+    public ForkJoinMatcher(Scorer<? super T> scorer) {
+        this(scorer, ForkJoinPool.commonPool(), false, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a {@code ForkJoinMatcher} that scores candidates on a new
+     * pool with the given parallelism level. The pool is shut down when this
+     * object is {@link #close() closed}.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param parallelism The parallelism level of the pool.
+     * @throws NullPointerException if the given scorer is {@code null}.
+     * @throws IllegalArgumentException if the given parallelism level is not
+     *         positive.
+     */
+    public ForkJoinMatcher(Scorer<? super T> scorer, int parallelism) {
+        this(scorer, new ForkJoinPool(parallelism), true, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a {@code ForkJoinMatcher} that scores candidates on the given
+     * pool, splitting the candidates into tasks of at most the given size.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param pool The pool on which candidates are scored.
+     * @param threshold The maximum amount of candidates scored by a single
+     *        task.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the given threshold is not positive.
+     */
+    public ForkJoinMatcher(
+            Scorer<? super T> scorer,
+            ForkJoinPool pool,
+            int threshold)
+    {
+        this(scorer, pool, false, threshold);
+    }
+
+    /**
+     * Constructs a {@code ForkJoinMatcher} with the given arguments.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param pool The pool on which candidates are scored.
+     * @param ownsPool Whether the given pool should be shut down on close.
+     * @param threshold The maximum amount of candidates scored by a single
+     *        task.
+     */
+    private ForkJoinMatcher(
+            Scorer<? super T> scorer,
+            ForkJoinPool pool,
+            boolean ownsPool,
+            int threshold)
+    {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold : " + threshold);
+        }
+        this.scorer = Objects.requireNonNull(scorer);
+        this.pool = Objects.requireNonNull(pool);
+        this.ownsPool = ownsPool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the parallelism level of the pool used by this object.
+     *
+     * @return The parallelism level of this object.
+     */
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the maximum amount of candidates scored by a single task.
+     *
+     * @return The maximum amount of candidates scored by a single task.
+     */
+    public int threshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the similarity of the given candidate to the given base object,
+     * as computed by the underlying {@code Scorer}.
+     *
+     * @param candidate The candidate to score.
+     * @param t The base object to score the candidate against.
+     * @return The similarity of the given candidate to the base object.
+     */
+    @Override
+    public double score(T candidate, T t) {
+        return scorer.score(candidate, t);
+    }
+
+    /**
+     * Selects and returns the highest-scoring object from the given collection,
+     * scoring candidates in parallel.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects from the given collection,
+     * scoring candidates in parallel.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates, best first.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        return rankAll(data, Collections.singleton(t), k).get(0);
+    }
+
+    /**
+     * Ranks the given candidate pool against every given query object,
+     * scoring chunks of candidates in parallel.
+     *
+     * @param data The candidate pool to be tested for similarity against each
+     *        query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return per query.
+     * @return A {@code List} containing a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     */
+    @Override
+    public List<Ranking<T>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        Object[] candidates = data.toArray();
+        Object[] ts = queries.toArray();
+        RankTask task = new RankTask(candidates, 0, candidates.length, ts, k);
+        List<TopK<T>> tops = candidates.length <= threshold
+                ? task.compute()
+                : pool.invoke(task);
+        List<Ranking<T>> rankings = new ArrayList<>(tops.size());
+        for (TopK<T> top : tops) {
+            rankings.add(top.toRanking());
+        }
+        return rankings;
+    }
+
+    /**
+     * Shuts down the pool used by this object if it was created by this
+     * object. Pools supplied by the caller are left running.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Scores a contiguous range of candidates against a batch of queries,
+     * splitting the range in half until it holds at most {@link #threshold}
+     * candidates.
+     */
+    private final class RankTask
+        extends RecursiveTask<List<TopK<T>>>
+    {
+
+        /**
+         * Version identifier for serialization.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The candidates, shared by every task.
+         */
+        private final Object[] candidates;
+
+        /**
+         * The first index of the range of this task, inclusive.
+         */
+        private final int from;
+
+        /**
+         * The last index of the range of this task, exclusive.
+         */
+        private final int to;
+
+        /**
+         * The base objects to score candidates against.
+         */
+        private final Object[] queries;
+
+        /**
+         * The maximum amount of candidates to retain per query.
+         */
+        private final int k;
+
+        /**
+         * Constructs a {@code RankTask} over the given range.
+         *
+         * @param candidates The candidates, shared by every task.
+         * @param from The first index of the range, inclusive.
+         * @param to The last index of the range, exclusive.
+         * @param queries The base objects to score candidates against.
+         * @param k The maximum amount of candidates to retain per query.
+         */
+        private RankTask(
+                Object[] candidates,
+                int from,
+                int to,
+                Object[] queries,
+                int k)
+        {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.queries = queries;
+            this.k = k;
+        }
+
+        /**
+         * Scores the range of this task, returning its best candidates for
+         * each query.
+         *
+         * @return The best candidates in the range of this task, per query.
+         */
+        @Override
+        protected List<TopK<T>> compute() {
+            if (to - from <= threshold) {
+                return rankBlocks(candidates, from, to, queries, k);
+            }
+            int middle = (from + to) >>> 1;
+            RankTask left = new RankTask(candidates, from, middle, queries, k);
+            left.fork();
+            List<TopK<T>> right =
+                    new RankTask(candidates, middle, to, queries, k).compute();
+            List<TopK<T>> merged = left.join();
+            for (int q = 0; q < merged.size(); q++) {
+                merged.get(q).merge(right.get(q));
+            }
+            return merged;
+        }
+
+    }
+
+}
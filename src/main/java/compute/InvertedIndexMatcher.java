@@ -0,0 +1,222 @@
+package compute;
+
+import model.Symptom;
+import sql.SQLObject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An implementation of the {@link Matcher} interface that looks candidates up
+ * in a {@link SymptomIndex} instead of testing every member of the pool.
+ *
+ * <p> Only candidates sharing at least one symptom with the query object are
+ * scored. Among those, the candidate with the greatest Dice similarity
+ * ({@code 2|A ∩ B| / (|A| + |B|)}) is selected.
+ *
+ * <p> By default, the candidate pool given to each query is indexed on first
+ * use. A matcher created through {@link #over(LiveSymptomIndex, Function)}
+ * instead queries a {@link LiveSymptomIndex} that is maintained as the catalog
+ * changes, and ignores the given pool.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class InvertedIndexMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, SymptomIndex<T>>
+{
+
+    /**
+     * The function returning the symptoms of an object.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The index queried in place of the given candidate pool, or {@code null}
+     * if the given pool is indexed instead.
+     */
+    private final SymptomSearch<T> fixed;
+
+    /**
+     * Constructs an {@code InvertedIndexMatcher} with the given symptom
+     * function.
+     *
+     * @param symptoms The function returning the symptoms of an object, for
+     *        example {@code Ailment :: getSymptoms}.
+     * @throws NullPointerException if the given function is {@code null}.
+     */
+    public InvertedIndexMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this(symptoms, null);
+    }
+
+    /**
+     * Constructs an {@code InvertedIndexMatcher} with the given arguments.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @param fixed The index to query in place of the given candidate pool, or
+     *        {@code null} to index the given pool.
+     */
+    private InvertedIndexMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            SymptomSearch<T> fixed)
+    {
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.fixed = fixed;
+    }
+
+    /**
+     * Returns an {@code InvertedIndexMatcher} that queries the given live index
+     * instead of the candidate pool passed to each operation.
+     *
+     * @param index The live index to query.
+     * @param symptoms The function returning the symptoms of a query object.
+     * @param <T> The type of the input to the function.
+     * @return An {@code InvertedIndexMatcher} querying the given index.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public static <T extends SQLObject<? super T>> InvertedIndexMatcher<T> over(
+            LiveSymptomIndex<T> index,
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        return new InvertedIndexMatcher<>(
+                symptoms,
+                Objects.requireNonNull(index));
+    }
+
+    /**
+     * Returns the function returning the symptoms of an object.
+     *
+     * @return The function returning the symptoms of an object.
+     */
+    protected Function<? super T, ? extends Collection<Symptom>> symptoms() {
+        return symptoms;
+    }
+
+    /**
+     * Builds a {@code SymptomIndex} over the given candidate pool.
+     *
+     * @param data The candidate pool to index.
+     * @return A new {@code SymptomIndex} over the given candidate pool.
+     */
+    @Override
+    protected SymptomIndex<T> buildIndex(Collection<? extends T> data) {
+        return new SymptomIndex<>(data, symptoms);
+    }
+
+    /**
+     * Returns the structure to query for the given candidate pool.
+     *
+     * @param data The candidate pool.
+     * @return The structure to query for the given candidate pool.
+     */
+    private SymptomSearch<T> search(Collection<? extends T> data) {
+        return fixed != null ? fixed : index(data);
+    }
+
+    /**
+     * Builds the index for the given candidate pool, unless this matcher
+     * queries a live index.
+     *
+     * @param data The candidate pool to prepare.
+     */
+    @Override
+    public void prepare(Collection<? extends T> data) {
+        if (fixed == null) {
+            super.prepare(data);
+        }
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} sharing the most
+     * symptoms with the given one, relative to the sizes of both symptom sets.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if no candidate shares any symptom with it.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return search(data).best(symptoms.apply(t));
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} sharing the
+     * most symptoms with the given one, relative to the sizes of both symptom
+     * sets. Candidates sharing no symptom with the given object are omitted.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        return search(data).rank(symptoms.apply(t), k);
+    }
+
+    /**
+     * Ranks the given candidate pool against every given query object.
+     *
+     * <p> The pool is indexed once for the whole batch, and the symptoms of
+     * each query are resolved once. Queries are then evaluated in
+     * lexicographic order of their symptom identification numbers, so that
+     * queries sharing symptoms run back to back and revisit the same posting
+     * lists while they are still in cache.
+     *
+     * @param data The candidate pool to be tested for similarity against each
+     *        query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return per query.
+     * @return A {@code List} containing a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     */
+    @Override
+    public List<Ranking<T>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        SymptomSearch<T> index = search(data);
+        int[][] ids = new int[queries.size()][];
+        int q = 0;
+        for (T query : queries) {
+            ids[q++] = SymptomSearch.ids(symptoms.apply(query));
+        }
+
+        Integer[] order = new Integer[ids.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> ids[i], LEXICOGRAPHIC));
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Ranking<T>[] rankings = new Ranking[ids.length];
+        for (int i : order) {
+            rankings[i] = index.rank(ids[i], k);
+        }
+        return Arrays.asList(rankings);
+    }
+
+    /**
+     * Orders ascending {@code int} arrays lexicographically.
+     */
+    private static final Comparator<int[]> LEXICOGRAPHIC = (a, b) -> {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    };
+
+}
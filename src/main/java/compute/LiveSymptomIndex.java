@@ -0,0 +1,648 @@
+package compute;
+
+import model.Symptom;
+import sql.SQLObject;
+import sql.access.AccessorListener;
+import util.primitive.Bits;
+import util.primitive.IntLongHashMap;
+import util.primitive.IntSets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link SymptomSearch} over a catalog that changes while it is being
+ * queried, kept up to date by accessor writes rather than by full rebuilds.
+ *
+ * <p> The catalog is held in an immutable snapshot made of
+ * {@link SymptomIndex} segments: a large base segment, and a tail of small
+ * segments that absorb recent writes. A write indexes only the written
+ * candidate, as a segment of its own; whenever the last segment of the tail is
+ * at least as large as the one before it, both are merged, so that the tail
+ * holds a logarithmic amount of segments and every candidate is reindexed a
+ * logarithmic amount of times. Removed or replaced candidates are masked out
+ * of their segment rather than reindexed.
+ *
+ * <p> A write builds a new snapshot and swaps it in atomically, so a query
+ * always runs against one consistent snapshot and is never blocked. Once the
+ * tail or the masked candidates grow beyond a fraction of the base, they are
+ * compacted into a new base in the background, and queries keep using the
+ * segments being compacted until the new base is swapped in.
+ *
+ * <p> Retired symptoms are filtered out of queries, and left out of every
+ * segment built after their retirement. A compaction drops the symptoms it
+ * has left out from the retired set. Until then, candidates indexed before
+ * a symptom was retired still count it in their amount of symptoms.
+ *
+ * <p> Register this object with an accessor for the candidates through
+ * {@link sql.access.BaseAccessor#addListener(AccessorListener)}, and the
+ * listener returned by {@link #symptomListener()} with the accessor for
+ * symptoms.
+ *
+ * @param <T> The type of the candidates.
+ * @author Oliver Abdulrahim
+ */
+public class LiveSymptomIndex<T extends SQLObject<? super T>>
+    implements SymptomSearch<T>, AccessorListener<T>
+{
+
+    /**
+     * The minimum amount of tail or masked candidates above which they are
+     * compacted into the base segment.
+     */
+    private static final int MIN_TAIL = 256;
+
+    /**
+     * The set of retired symptoms when there is none.
+     */
+    private static final int[] NONE = new int[0];
+
+    private static final Logger LOG =
+            Logger.getLogger(LiveSymptomIndex.class.getName());
+
+    /**
+     * The function returning the symptoms of a candidate.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The current snapshot of the catalog. Only replaced while holding the lock
+     * of this object.
+     */
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * The identification numbers of the candidates written since the running
+     * compaction captured its snapshot, or {@code null} if no compaction is
+     * running. Guarded by {@code this}.
+     */
+    private IntLongHashMap written;
+
+    /**
+     * The running compaction, or {@code null} if there is none. Guarded by
+     * {@code this}.
+     */
+    private CompletableFuture<Void> compaction;
+
+    /**
+     * Constructs an empty {@code LiveSymptomIndex}.
+     *
+     * @param symptoms The function returning the symptoms of a candidate.
+     * @throws NullPointerException if the given argument is {@code null}.
+     */
+    public LiveSymptomIndex(
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this(Collections.emptyList(), symptoms);
+    }
+
+    /**
+     * Constructs a {@code LiveSymptomIndex} initially holding the given
+     * candidates.
+     *
+     * @param data The initial candidates.
+     * @param symptoms The function returning the symptoms of a candidate.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public LiveSymptomIndex(
+            Collection<? extends T> data,
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.snapshot = new Snapshot<>(
+                segment(new ArrayList<>(data), NONE),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                NONE);
+    }
+
+    /**
+     * Returns the amount of candidates currently in this index.
+     *
+     * @return The amount of candidates in this index.
+     */
+    public int size() {
+        Snapshot<T> s = snapshot;
+        return s.base.live + live(s.frozen) + live(s.tail);
+    }
+
+    /**
+     * Returns the candidate most similar to the symptoms with the given
+     * identification numbers in the current snapshot, or {@code null} if no
+     * candidate shares any of them.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @return The candidate most similar to the given symptoms, or
+     *         {@code null} if there is no such candidate.
+     */
+    @Override
+    public T best(int[] query) {
+        return rank(query, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} candidates most similar to the symptoms with the
+     * given identification numbers in the current snapshot, best first.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates most similar to the given
+     *         symptoms.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(int[] query, int k) {
+        Snapshot<T> s = snapshot;
+        int[] ids = IntSets.difference(query, s.retired);
+        TopK<T> top = new TopK<>(k);
+        s.base.offer(ids, top);
+        for (int i = 0; i < s.frozen.size(); i++) {
+            s.frozen.get(i).offer(ids, top);
+        }
+        for (int i = 0; i < s.tail.size(); i++) {
+            s.tail.get(i).offer(ids, top);
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Adds the given candidate to this index, replacing any candidate with the
+     * same identification number.
+     *
+     * @param t The candidate to add.
+     */
+    public synchronized void put(T t) {
+        Snapshot<T> s = snapshot;
+        int id = t.getID();
+        List<Segment<T>> tail = new ArrayList<>(s.tail.size() + 1);
+        for (Segment<T> segment : s.tail) {
+            tail.add(segment.without(id));
+        }
+        tail.add(segment(Collections.singletonList(t), s.retired));
+
+        // Merge the last two segments while the last is at least as large as
+        // the one before it, as in incrementing a binary counter.
+        int last = tail.size() - 1;
+        while (last > 0
+                && tail.get(last - 1).live <= tail.get(last).live) {
+            List<T> merged = tail.get(last - 1).candidates();
+            merged.addAll(tail.remove(last).candidates());
+            tail.set(--last, segment(merged, s.retired));
+        }
+
+        snapshot = new Snapshot<>(
+                s.base.without(id),
+                without(s.frozen, id),
+                Collections.unmodifiableList(tail),
+                s.retired);
+        if (written != null) {
+            written.put(id, 1L);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes the candidate with the same identification number as the given
+     * one from this index, if it is present.
+     *
+     * @param t The candidate to remove.
+     */
+    public synchronized void remove(T t) {
+        Snapshot<T> s = snapshot;
+        int id = t.getID();
+        snapshot = new Snapshot<>(
+                s.base.without(id),
+                without(s.frozen, id),
+                without(s.tail, id),
+                s.retired);
+        if (written != null) {
+            written.put(id, 1L);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Stops matching the given symptom against any candidate.
+     *
+     * @param symptom The symptom to retire.
+     */
+    public synchronized void retire(Symptom symptom) {
+        Snapshot<T> s = snapshot;
+        snapshot = new Snapshot<>(
+                s.base,
+                s.frozen,
+                s.tail,
+                IntSets.union(s.retired, IntSets.of(symptom.getID())));
+    }
+
+    /**
+     * Compacts the tail and masked candidates into a new base segment in the
+     * background, unless a compaction is already running. Queries are served
+     * from the current segments until the compaction completes. If it fails,
+     * the failure is logged, the segments being compacted are returned to the
+     * tail, and the returned future completes exceptionally.
+     *
+     * @return A future completed once the running compaction has been swapped
+     *         in.
+     */
+    public synchronized CompletableFuture<Void> compact() {
+        if (compaction == null) {
+            Snapshot<T> s = snapshot;
+            Snapshot<T> from = new Snapshot<>(
+                    s.base,
+                    concat(s.frozen, s.tail),
+                    Collections.emptyList(),
+                    s.retired);
+            snapshot = from;
+            written = new IntLongHashMap();
+            compaction = CompletableFuture.runAsync(() -> compact(from));
+        }
+        return compaction;
+    }
+
+    /**
+     * Adds the given candidate to this index.
+     *
+     * @param t The candidate that was inserted.
+     */
+    @Override
+    public void inserted(T t) {
+        put(t);
+    }
+
+    /**
+     * Replaces the given candidate in this index.
+     *
+     * @param t The candidate that was updated.
+     */
+    @Override
+    public void updated(T t) {
+        put(t);
+    }
+
+    /**
+     * Removes the given candidate from this index.
+     *
+     * @param t The candidate that was deleted.
+     */
+    @Override
+    public void deleted(T t) {
+        remove(t);
+    }
+
+    /**
+     * Returns a listener that {@link #retire(Symptom) retires} symptoms from
+     * this index as they are deleted, for registration with a symptom accessor.
+     *
+     * @return A listener retiring deleted symptoms from this index.
+     */
+    public AccessorListener<Symptom> symptomListener() {
+        return new AccessorListener<Symptom>() {
+            @Override
+            public void deleted(Symptom symptom) {
+                retire(symptom);
+            }
+        };
+    }
+
+    /**
+     * Starts a compaction if either the tail or the masked candidates of the
+     * base segment have grown beyond a fraction of the base segment. Must be
+     * called while holding the lock of this object.
+     */
+    private void compactIfNeeded() {
+        Snapshot<T> s = snapshot;
+        int limit = Math.max(MIN_TAIL, s.base.live / 8);
+        int stale = s.base.index.size() - s.base.live;
+        if (compaction == null && (live(s.tail) > limit || stale > limit)) {
+            compact();
+        }
+    }
+
+    /**
+     * Builds a new base segment from the base and frozen segments of the given
+     * snapshot and swaps it in. Runs in the background, without holding the
+     * lock of this object while building.
+     *
+     * @param from The snapshot to compact.
+     */
+    private void compact(Snapshot<T> from) {
+        Segment<T> base;
+        try {
+            List<T> all = from.base.candidates();
+            for (Segment<T> segment : from.frozen) {
+                all.addAll(segment.candidates());
+            }
+            base = segment(all, from.retired);
+        }
+        catch (RuntimeException | Error ex) {
+            synchronized (this) {
+                Snapshot<T> s = snapshot;
+                snapshot = new Snapshot<>(
+                        s.base,
+                        Collections.emptyList(),
+                        concat(s.frozen, s.tail),
+                        s.retired);
+                written = null;
+                compaction = null;
+            }
+            LOG.log(Level.SEVERE, "Compaction failed", ex);
+            throw ex;
+        }
+        synchronized (this) {
+            Snapshot<T> s = snapshot;
+            snapshot = new Snapshot<>(
+                    base.without(written.keys()),
+                    Collections.emptyList(),
+                    s.tail,
+                    IntSets.difference(s.retired, from.retired));
+            written = null;
+            compaction = null;
+        }
+    }
+
+    /**
+     * Builds a new segment holding the given candidates, leaving out the given
+     * retired symptoms.
+     *
+     * @param data The candidates of the segment.
+     * @param retired The identification numbers of the retired symptoms.
+     * @return A new segment holding the given candidates.
+     */
+    private Segment<T> segment(List<? extends T> data, int[] retired) {
+        if (retired.length == 0) {
+            return new Segment<>(new SymptomIndex<>(data, symptoms));
+        }
+        return new Segment<>(new SymptomIndex<>(data, t -> symptoms
+                .apply(t)
+                .stream()
+                .filter(s -> !IntSets.contains(retired, s.getID()))
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Returns the given segments with the candidate having the given
+     * identification number removed, or the given list itself if no segment
+     * holds such a candidate.
+     *
+     * @param segments The segments to remove the candidate from.
+     * @param id The identification number of the candidate to remove.
+     * @param <T> The type of the candidates.
+     * @return The given segments without the given candidate.
+     */
+    private static <T extends SQLObject<? super T>> List<Segment<T>> without(
+            List<Segment<T>> segments,
+            int id)
+    {
+        List<Segment<T>> result = null;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment<T> segment = segments.get(i);
+            Segment<T> removed = segment.without(id);
+            if (removed != segment) {
+                if (result == null) {
+                    result = new ArrayList<>(segments);
+                }
+                result.set(i, removed);
+            }
+        }
+        return result == null
+                ? segments
+                : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns an unmodifiable list of the given segments followed by the
+     * other given segments, or either list itself if the other is empty.
+     *
+     * @param first The leading segments.
+     * @param second The trailing segments.
+     * @param <T> The type of the candidates.
+     * @return The concatenation of the given segments.
+     */
+    private static <T extends SQLObject<? super T>> List<Segment<T>> concat(
+            List<Segment<T>> first,
+            List<Segment<T>> second)
+    {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<Segment<T>> result = new ArrayList<>(first);
+        result.addAll(second);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns the amount of candidates in the given segments that are not
+     * removed.
+     *
+     * @param segments The segments to count.
+     * @param <T> The type of the candidates.
+     * @return The amount of live candidates in the given segments.
+     */
+    private static <T extends SQLObject<? super T>> int live(
+            List<Segment<T>> segments)
+    {
+        int live = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            live += segments.get(i).live;
+        }
+        return live;
+    }
+
+    /**
+     * An immutable view of the catalog at one point in time.
+     *
+     * @param <T> The type of the candidates.
+     */
+    private static final class Snapshot<T extends SQLObject<? super T>> {
+
+        /**
+         * The segment holding the bulk of the catalog.
+         */
+        private final Segment<T> base;
+
+        /**
+         * The segments being compacted into a new base segment.
+         */
+        private final List<Segment<T>> frozen;
+
+        /**
+         * The segments holding recently written candidates, largest first.
+         */
+        private final List<Segment<T>> tail;
+
+        /**
+         * The ascending identification numbers of the symptoms that no longer
+         * match.
+         */
+        private final int[] retired;
+
+        /**
+         * Constructs a {@code Snapshot} with the given arguments.
+         *
+         * @param base The segment holding the bulk of the catalog.
+         * @param frozen The segments being compacted.
+         * @param tail The segments holding recently written candidates.
+         * @param retired The symptoms that no longer match.
+         */
+        private Snapshot(
+                Segment<T> base,
+                List<Segment<T>> frozen,
+                List<Segment<T>> tail,
+                int[] retired)
+        {
+            this.base = base;
+            this.frozen = frozen;
+            this.tail = tail;
+            this.retired = retired;
+        }
+
+    }
+
+    /**
+     * An immutable {@code SymptomIndex} paired with a mask of the slots whose
+     * candidates have since been removed or replaced.
+     *
+     * @param <T> The type of the candidates.
+     */
+    private static final class Segment<T extends SQLObject<? super T>> {
+
+        /**
+         * The index over every candidate of the segment, removed or not.
+         */
+        private final SymptomIndex<T> index;
+
+        /**
+         * Maps candidate identification numbers to their slots in the index.
+         */
+        private final Map<Integer, Integer> slots;
+
+        /**
+         * A bit set of the slots whose candidates have been removed.
+         */
+        private final long[] removed;
+
+        /**
+         * The amount of candidates in the segment that are not removed.
+         */
+        private final int live;
+
+        /**
+         * Constructs a {@code Segment} in which no candidate is removed.
+         *
+         * @param index The index over the candidates of the segment.
+         */
+        private Segment(SymptomIndex<T> index) {
+            this.index = index;
+            this.slots = new HashMap<>(index.size() * 4 / 3 + 1);
+            for (int slot = 0; slot < index.size(); slot++) {
+                slots.put(index.candidate(slot).getID(), slot);
+            }
+            this.removed = new long[Bits.words(index.size())];
+            this.live = index.size();
+        }
+
+        /**
+         * Constructs a {@code Segment} sharing the index of another.
+         *
+         * @param other The segment whose index to share.
+         * @param removed The bit set of removed slots.
+         * @param live The amount of candidates that are not removed.
+         */
+        private Segment(Segment<T> other, long[] removed, int live) {
+            this.index = other.index;
+            this.slots = other.slots;
+            this.removed = removed;
+            this.live = live;
+        }
+
+        /**
+         * Returns {@code true} if the candidate at the given slot has been
+         * removed, {@code false} otherwise.
+         *
+         * @param slot The slot to test.
+         * @return {@code true} if the candidate at the given slot has been
+         *         removed, {@code false} otherwise.
+         */
+        private boolean isRemoved(int slot) {
+            return Bits.get(removed, slot);
+        }
+
+        /**
+         * Returns this segment with the candidates having the given
+         * identification numbers removed, or this segment itself if there are
+         * no such candidates.
+         *
+         * @param ids The identification numbers of the candidates to remove.
+         * @return This segment without the given candidates.
+         */
+        private Segment<T> without(int... ids) {
+            long[] mask = null;
+            int remaining = live;
+            for (int id : ids) {
+                Integer slot = slots.get(id);
+                if (slot != null && !isRemoved(slot)
+                        && (mask == null || !Bits.get(mask, slot))) {
+                    if (mask == null) {
+                        mask = removed.clone();
+                    }
+                    Bits.set(mask, slot);
+                    remaining--;
+                }
+            }
+            return mask == null ? this : new Segment<>(this, mask, remaining);
+        }
+
+        /**
+         * Returns a new, mutable {@code List} of the candidates in this segment
+         * that are not removed.
+         *
+         * @return The candidates in this segment that are not removed.
+         */
+        private List<T> candidates() {
+            List<T> candidates = new ArrayList<>(live + 1);
+            for (int slot = 0; slot < index.size(); slot++) {
+                if (!isRemoved(slot)) {
+                    candidates.add(index.candidate(slot));
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * Offers every candidate in this segment sharing one of the given
+         * symptoms to the given {@code TopK}.
+         *
+         * @param query The symptom identification numbers to match.
+         * @param top The {@code TopK} to offer candidates to.
+         */
+        private void offer(int[] query, TopK<T> top) {
+            index.overlaps(query, (slot, overlap) -> {
+                if (!isRemoved(slot)) {
+                    double score = index.dice(overlap, query.length, slot);
+                    if (score > top.threshold()) {
+                        top.offer(index.candidate(slot), score);
+                    }
+                }
+            });
+        }
+
+    }
+
+}
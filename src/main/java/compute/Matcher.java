@@ -1,6 +1,11 @@
 package compute;
 
+import model.Symptom;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Represents a function that accepts a {@link Comparable} object and selects
@@ -29,6 +34,73 @@ public interface Matcher<T extends Comparable<? super T>> {
      */
     T compute(Collection<? extends T> data, T t);
 
+    /**
+     * Returns the {@code k} objects from the given collection defined to be
+     * most similar to the given object, best first, along with their scores.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     * @implSpec The default implementation scores each candidate by the
+     *           negated magnitude of its {@code compareTo} result against the
+     *           given object, retaining the best in a {@link TopK}.
+     */
+    default Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        TopK<T> top = new TopK<>(k);
+        for (T candidate : data) {
+            top.offer(candidate, -Math.abs((double) candidate.compareTo(t)));
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Ranks the given candidate pool against every given query object,
+     * returning one {@code Ranking} per query in the iteration order of the
+     * queries.
+     *
+     * <p> Implementations share per-query setup, such as index construction
+     * and scratch buffers, across the whole batch, and may evaluate the queries
+     * in any order.
+     *
+     * @param data The candidate pool to be tested for similarity against each
+     *        query.
+     * @param queries The base objects to test.
+     * @param k The maximum amount of candidates to return per query.
+     * @return A {@code List} containing a {@code Ranking} for each query, in
+     *         the iteration order of the queries.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     * @implSpec The default implementation {@link #prepare(Collection)
+     *           prepares} the candidate pool once, then invokes
+     *           {@link #rank(Collection, Comparable, int)} for each query.
+     */
+    default List<Ranking<T>> rankAll(
+            Collection<? extends T> data,
+            Collection<? extends T> queries,
+            int k)
+    {
+        prepare(data);
+        List<Ranking<T>> rankings = new ArrayList<>(queries.size());
+        for (T query : queries) {
+            rankings.add(rank(data, query, k));
+        }
+        return rankings;
+    }
+
+    /**
+     * Performs any work this matcher needs before the given candidate pool can
+     * be queried, such as building an index over it. Calling this method is
+     * never required, but moves that work out of the first query.
+     *
+     * @param data The candidate pool to prepare.
+     * @implSpec The default implementation does nothing.
+     */
+    default void prepare(Collection<? extends T> data) {
+
+    }
+
     /**
      * Returns an implementation of this interface.
      *
@@ -42,4 +114,38 @@ public interface Matcher<T extends Comparable<? super T>> {
         return new MeanSquaredErrorMatcher<>();
     }
 
+    /**
+     * Returns an implementation of this interface that selects candidates
+     * through an inverted index over their symptoms.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @param <T> The type of the input to the function, lower bounded by
+     *        {@code Comparable}.
+     * @return An implementation of this interface backed by an index.
+     * @implSpec This method returns an object of type
+     *           {@link InvertedIndexMatcher}.
+     */
+    static <T extends Comparable<? super T>> Matcher<T> indexed(
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        return new InvertedIndexMatcher<T>(symptoms);
+    }
+
+    /**
+     * Returns an implementation of this interface that scores candidates in
+     * parallel on the common {@code ForkJoinPool}.
+     *
+     * @param scorer The function scoring each candidate.
+     * @param <T> The type of the input to the function, lower bounded by
+     *        {@code Comparable}.
+     * @return An implementation of this interface that scores in parallel.
+     * @implSpec This method returns an object of type
+     *           {@link ForkJoinMatcher}.
+     */
+    static <T extends Comparable<? super T>> Matcher<T> parallel(
+            Scorer<? super T> scorer)
+    {
+        return new ForkJoinMatcher<T>(scorer);
+    }
+
 }
@@ -1,35 +1,33 @@
 package compute;
 
-import java.util.Collection;
-import java.util.TreeSet;
-
 /**
  * An implementation of the {@link Matcher} interface that preforms a
  * mean-squared error computation to test object similarity.
  *
+ * <p> The error is taken over the single {@code compareTo} result of two
+ * objects. To compare objects by their actual symptoms and demographics, use
+ * a {@link VectorMatcher} with {@link Distance#MEAN_SQUARED}.
+ *
  * @param <T> The type of the input to the function, upper bounded by
  *        {@code Comparable}.
  * @author Oliver Abdulrahim
  */
 public class MeanSquaredErrorMatcher<T extends Comparable<? super T>>
-    implements Matcher<T>
+    extends AbstractScoringMatcher<T>
 {
 
     /**
-     * Computes a mean-squared error to find the object in the given
-     * {@code Collection} most similar to the given one.
+     * Scores the given candidate by the negation of its mean-squared error
+     * against the given object, so that the candidate with the least error
+     * scores highest.
      *
-     * @param data The candidate pool to be tested for similarity against
-     *        {@code t}.
-     * @param t The base object to test.
-     * @return An object from the given collection that is closest to the given
-     *         one.
+     * @param candidate The candidate to score.
+     * @param t The base object to score the candidate against.
+     * @return The negated mean-squared error between the given objects.
      */
     @Override
-    public T compute(Collection<? extends T> data, T t) {
-        TreeSet<T> diff = new TreeSet<>(this :: meanSquaredError);
-        T candidate = diff.ceiling(t);
-        return candidate;
+    public double score(T candidate, T t) {
+        return -meanSquaredError(candidate, t);
     }
 
     /**
@@ -39,9 +37,9 @@ public class MeanSquaredErrorMatcher<T extends Comparable<? super T>>
      * @param second The object to test against {@code first}.
      * @return The error between the given objects.
      */
-    private int meanSquaredError(T first, T second) {
-        int error = first.compareTo(second);
-        return (int) Math.pow(error, 2) / 2;
+    private double meanSquaredError(T first, T second) {
+        double error = first.compareTo(second);
+        return error * error / 2;
     }
 
 }
@@ -0,0 +1,371 @@
+package compute;
+
+import model.Symptom;
+import util.primitive.Hashing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An approximate implementation of the {@link Matcher} interface that only
+ * scores candidates likely to be similar to the query object.
+ *
+ * <p> Each symptom set is signed with {@code bands × rows} MinHash values. Two
+ * sets agree on any one MinHash value with probability equal to their Jaccard
+ * similarity {@code s}. The signature is cut into {@code bands} bands of
+ * {@code rows} values, and candidates are bucketed by the hash of each band.
+ * A candidate becomes eligible when it shares at least one bucket with the
+ * query, which happens with probability {@code 1 - (1 - s^rows)^bands}. The
+ * eligible candidates are then scored exactly by the given {@link Scorer}.
+ *
+ * <p> Increasing {@code bands} raises recall at the cost of scoring more
+ * candidates; increasing {@code rows} makes buckets more selective and
+ * queries faster, at the cost of recall for weakly similar candidates.
+ * Candidates without symptoms are never bucketed.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class MinHashMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, MinHashMatcher.Buckets>
+{
+
+    /**
+     * The default amount of bands in a signature.
+     */
+    public static final int DEFAULT_BANDS = 20;
+
+    /**
+     * The default amount of rows in each band of a signature.
+     */
+    public static final int DEFAULT_ROWS = 5;
+
+    /**
+     * The seed from which the MinHash functions are derived.
+     */
+    private static final long SEED = 0x5EED_CD55L;
+
+    /**
+     * Per-thread scratch space used to avoid scoring a candidate twice.
+     */
+    private static final ThreadLocal<Marks> MARKS =
+            ThreadLocal.withInitial(Marks :: new);
+
+    /**
+     * The function returning the symptoms of an object.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The function scoring the candidates found in shared buckets.
+     */
+    private final Scorer<? super T> scorer;
+
+    /**
+     * The amount of bands in a signature.
+     */
+    private final int bands;
+
+    /**
+     * The amount of rows in each band of a signature.
+     */
+    private final int rows;
+
+    /**
+     * The seeds of the MinHash functions, one per signature value.
+     */
+    private final long[] seeds;
+
+    /**
+     * Constructs a {@code MinHashMatcher} with the default amount of bands and
+     * rows.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @param scorer The function scoring the candidates found in shared
+     *        buckets.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public MinHashMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            Scorer<? super T> scorer)
+    {
+        this(symptoms, scorer, DEFAULT_BANDS, DEFAULT_ROWS);
+    }
+
+    /**
+     * Constructs a {@code MinHashMatcher} with the given arguments.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @param scorer The function scoring the candidates found in shared
+     *        buckets.
+     * @param bands The amount of bands in a signature.
+     * @param rows The amount of rows in each band of a signature.
+     * @throws NullPointerException if any of the given objects is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the given amount of bands or rows is
+     *         not positive.
+     */
+    public MinHashMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            Scorer<? super T> scorer,
+            int bands,
+            int rows)
+    {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException(
+                    "Bands : " + bands + ", rows : " + rows);
+        }
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.scorer = Objects.requireNonNull(scorer);
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = Hashing.seeds(SEED, bands * rows);
+    }
+
+    /**
+     * Returns the amount of bands in a signature.
+     *
+     * @return The amount of bands in a signature.
+     */
+    public int bands() {
+        return bands;
+    }
+
+    /**
+     * Returns the amount of rows in each band of a signature.
+     *
+     * @return The amount of rows in each band of a signature.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * Returns the probability that a candidate with the given Jaccard
+     * similarity to the query shares at least one bucket with it, and so is
+     * scored.
+     *
+     * @param similarity The Jaccard similarity of the candidate and query.
+     * @return The probability that the candidate is scored.
+     */
+    public double recall(double similarity) {
+        return 1.0 - Math.pow(1.0 - Math.pow(similarity, rows), bands);
+    }
+
+    /**
+     * Signs and buckets every candidate in the given pool.
+     *
+     * @param data The candidate pool to index.
+     * @return The buckets of the given candidate pool.
+     */
+    @Override
+    protected Buckets buildIndex(Collection<? extends T> data) {
+        Object[] candidates = data.toArray();
+        long[][] keys = new long[bands][candidates.length];
+        int bucketed = 0;
+        for (int slot = 0; slot < candidates.length; slot++) {
+            @SuppressWarnings("unchecked")
+            T candidate = (T) candidates[slot];
+            int[] ids = SymptomSearch.ids(symptoms.apply(candidate));
+            if (ids.length > 0) {
+                long[] signature = signature(ids);
+                for (int band = 0; band < bands; band++) {
+                    keys[band][bucketed] = pack(bandKey(signature, band), slot);
+                }
+                bucketed++;
+            }
+        }
+        for (int band = 0; band < bands; band++) {
+            keys[band] = Arrays.copyOf(keys[band], bucketed);
+            Arrays.sort(keys[band]);
+        }
+        return new Buckets(candidates, keys);
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} scoring highest among
+     * those sharing a bucket with the given one.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return The best object from the given collection sharing a bucket with
+     *         the given one, or {@code null} if there is no such object.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} highest-scoring objects among those sharing a
+     * bucket with the given one.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates sharing a bucket with
+     *         the given object.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        Buckets buckets = index(data);
+        TopK<T> top = new TopK<>(k);
+        int[] ids = SymptomSearch.ids(symptoms.apply(t));
+        if (ids.length == 0) {
+            return top.toRanking();
+        }
+        long[] signature = signature(ids);
+        Marks marks = MARKS.get().next(buckets.candidates.length);
+        for (int band = 0; band < bands; band++) {
+            long[] keys = buckets.keys[band];
+            int key = bandKey(signature, band);
+            int i = Arrays.binarySearch(keys, pack(key, 0));
+            for (i = i < 0 ? -i - 1 : i; i < keys.length; i++) {
+                if ((int) (keys[i] >>> 32) != key) {
+                    break;
+                }
+                int slot = (int) keys[i];
+                if (marks.mark(slot)) {
+                    T candidate = (T) buckets.candidates[slot];
+                    top.offer(candidate, scorer.score(candidate, t));
+                }
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the MinHash signature of the given symptom identification
+     * numbers.
+     *
+     * @param ids The symptom identification numbers to sign.
+     * @return The MinHash signature of the given identification numbers.
+     */
+    private long[] signature(int[] ids) {
+        long[] signature = new long[seeds.length];
+        for (int i = 0; i < seeds.length; i++) {
+            long seed = seeds[i];
+            long min = Long.MAX_VALUE;
+            for (int id : ids) {
+                min = Math.min(min, Hashing.mix64(id ^ seed));
+            }
+            signature[i] = min;
+        }
+        return signature;
+    }
+
+    /**
+     * Returns the bucket key of the given band of the given signature.
+     *
+     * @param signature The signature containing the band.
+     * @param band The index of the band.
+     * @return The bucket key of the given band.
+     */
+    private int bandKey(long[] signature, int band) {
+        long h = band;
+        for (int i = band * rows, end = i + rows; i < end; i++) {
+            h = Hashing.mix64(h ^ signature[i]);
+        }
+        return (int) (h >>> 32);
+    }
+
+    /**
+     * Packs the given bucket key and slot into a single {@code long}, such
+     * that packed values sort by key, then by slot.
+     *
+     * @param key The bucket key.
+     * @param slot The slot of the candidate.
+     * @return The packed key and slot.
+     */
+    private static long pack(int key, int slot) {
+        return ((long) key << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The buckets of a candidate pool, stored per band as an array of packed
+     * bucket keys and slots sorted by key.
+     */
+    static final class Buckets {
+
+        /**
+         * The candidates, by slot.
+         */
+        private final Object[] candidates;
+
+        /**
+         * For each band, the packed bucket keys and slots of the candidates,
+         * sorted by key.
+         */
+        private final long[][] keys;
+
+        /**
+         * Constructs a {@code Buckets} with the given arguments.
+         *
+         * @param candidates The candidates, by slot.
+         * @param keys The sorted, packed bucket keys and slots of each band.
+         */
+        private Buckets(Object[] candidates, long[][] keys) {
+            this.candidates = candidates;
+            this.keys = keys;
+        }
+
+    }
+
+    /**
+     * Records which slots have been visited by the current query, without
+     * clearing between queries.
+     */
+    private static final class Marks {
+
+        /**
+         * The stamp of the query that last visited each slot.
+         */
+        private int[] stamps = new int[0];
+
+        /**
+         * The stamp of the current query.
+         */
+        private int stamp;
+
+        /**
+         * Begins a new query over the given amount of slots, returning this
+         * object.
+         *
+         * @param capacity The amount of slots.
+         * @return This object.
+         */
+        private Marks next(int capacity) {
+            if (stamps.length < capacity || stamp == Integer.MAX_VALUE) {
+                stamps = new int[Math.max(capacity, stamps.length)];
+                stamp = 0;
+            }
+            stamp++;
+            return this;
+        }
+
+        /**
+         * Marks the given slot as visited, returning {@code true} if it was
+         * not visited before by the current query.
+         *
+         * @param slot The slot to mark.
+         * @return {@code true} if the slot was not visited before,
+         *         {@code false} otherwise.
+         */
+        private boolean mark(int slot) {
+            if (stamps[slot] == stamp) {
+                return false;
+            }
+            stamps[slot] = stamp;
+            return true;
+        }
+
+    }
+
+}
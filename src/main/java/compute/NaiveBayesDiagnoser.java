@@ -0,0 +1,442 @@
+package compute;
+
+import model.Ailment;
+import model.Patient;
+import model.Symptom;
+import model.SymptomDictionary;
+import util.primitive.IntDictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * A probabilistic diagnosis engine that learns ailment priors and symptom
+ * likelihoods from historical patients, and ranks ailments by their posterior
+ * probability given a set of symptoms.
+ *
+ * <p> The model is a multinomial naive Bayes classifier with additive
+ * smoothing. For an ailment {@code a} and a symptom {@code s},
+ * <pre>
+ *     P(a)     = (patients(a) + α) / (diagnoses + α · ailments)
+ *     P(s | a) = (count(a, s) + α) / (symptoms(a) + α · symptoms)
+ * </pre>
+ * where {@code diagnoses} is the sum of {@code patients(a)} over every
+ * ailment, which exceeds the amount of patients when a patient has several
+ * ailments, so that the priors sum to one. {@code count(a, s)} is the amount
+ * of historical patients with both {@code a} and {@code s}, and
+ * {@code symptoms(a)} is the total amount of symptoms recorded for patients
+ * with {@code a}.
+ *
+ * <p> Counts are kept in flat primitive tables indexed by dense ailment and
+ * symptom indices, and training only increments them, so new patients can be
+ * absorbed at any time without revisiting old ones. The log-probability tables
+ * are recomputed lazily, and only for the ailments whose counts changed, on
+ * the first query after training. Queries run against an immutable copy of
+ * those tables and never block training.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class NaiveBayesDiagnoser {
+
+    /**
+     * The default additive smoothing constant.
+     */
+    public static final double DEFAULT_SMOOTHING = 1.0;
+
+    /**
+     * The additive smoothing constant {@code α}.
+     */
+    private final double smoothing;
+
+    /**
+     * Assigns dense indices to ailment identification numbers.
+     */
+    private final IntDictionary ailmentIndices;
+
+    /**
+     * The ailments seen during training, by dense index. Guarded by
+     * {@code this}.
+     */
+    private Ailment[] ailments;
+
+    /**
+     * The amount of training patients with each ailment, by dense index.
+     * Guarded by {@code this}.
+     */
+    private long[] patients;
+
+    /**
+     * The total amount of symptoms recorded for each ailment, by dense index.
+     * Guarded by {@code this}.
+     */
+    private long[] totals;
+
+    /**
+     * The co-occurrence count of each ailment and symptom, stored row-major at
+     * {@code ailment * stride + symptom}. Guarded by {@code this}.
+     */
+    private int[] counts;
+
+    /**
+     * The row length of {@link #counts}. Guarded by {@code this}.
+     */
+    private int stride;
+
+    /**
+     * The amount of training patients. Guarded by {@code this}.
+     */
+    private long trained;
+
+    /**
+     * The sum of the amount of training patients with each ailment, which is
+     * the amount of ailment diagnoses trained with. Guarded by {@code this}.
+     */
+    private long diagnoses;
+
+    /**
+     * Marks the ailments whose counts changed since the model was last built.
+     * Guarded by {@code this}.
+     */
+    private boolean[] dirty;
+
+    /**
+     * The most recently built model, or {@code null} if training has occurred
+     * since.
+     */
+    private volatile Model model;
+
+    /**
+     * The last model built, reused for the rows that did not change. Guarded
+     * by {@code this}.
+     */
+    private Model previous;
+
+    /**
+     * Constructs an untrained {@code NaiveBayesDiagnoser} with the default
+     * smoothing constant.
+     */
+    public NaiveBayesDiagnoser() {
+        this(DEFAULT_SMOOTHING);
+    }
+
+    /**
+     * Constructs an untrained {@code NaiveBayesDiagnoser} with the given
+     * smoothing constant.
+     *
+     * @param smoothing The additive smoothing constant.
+     * @throws IllegalArgumentException if the given constant is not positive.
+     */
+    public NaiveBayesDiagnoser(double smoothing) {
+        if (!(smoothing > 0.0)) {
+            throw new IllegalArgumentException("Smoothing : " + smoothing);
+        }
+        this.smoothing = smoothing;
+        this.ailmentIndices = new IntDictionary();
+        this.ailments = new Ailment[16];
+        this.patients = new long[16];
+        this.totals = new long[16];
+        this.dirty = new boolean[16];
+        this.stride = 64;
+        this.counts = new int[16 * stride];
+    }
+
+    /**
+     * Returns the amount of patients this object has been trained with.
+     *
+     * @return The amount of training patients.
+     */
+    public synchronized long trained() {
+        return trained;
+    }
+
+    /**
+     * Trains this object with every patient in the given {@code Stream}, for
+     * example {@code PatientAccessor.all()}, in a single pass.
+     *
+     * @param s The patients to train with.
+     */
+    public void train(Stream<? extends Patient> s) {
+        Iterator<? extends Patient> it = s.iterator();
+        while (it.hasNext()) {
+            train(it.next());
+        }
+    }
+
+    /**
+     * Trains this object with the ailments and symptoms of the given patient.
+     * Patients without ailments carry no information and are ignored.
+     *
+     * @param patient The patient to train with.
+     */
+    public void train(Patient patient) {
+        Collection<Ailment> of = patient.getAilments();
+        if (of.isEmpty()) {
+            return;
+        }
+        long[] symptoms = patient.symptomBits();
+        int occurrences = 0;
+        for (long word : symptoms) {
+            occurrences += Long.bitCount(word);
+        }
+        synchronized (this) {
+            ensureColumns(symptoms.length * 64);
+            for (Ailment ailment : of) {
+                int a = ailmentIndex(ailment);
+                patients[a]++;
+                diagnoses++;
+                totals[a] += occurrences;
+                dirty[a] = true;
+                int row = a * stride;
+                for (int w = 0; w < symptoms.length; w++) {
+                    int base = row + (w << 6);
+                    for (long word = symptoms[w]; word != 0; word &= word - 1) {
+                        counts[base + Long.numberOfTrailingZeros(word)]++;
+                    }
+                }
+            }
+            trained++;
+            model = null;
+        }
+    }
+
+    /**
+     * Returns the {@code k} ailments with the greatest posterior probability
+     * given the symptoms of the given patient, most probable first.
+     *
+     * @param patient The patient to diagnose.
+     * @param k The maximum amount of ailments to return.
+     * @return A {@code Ranking} of the most probable ailments, scored by
+     *         posterior probability.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Ailment> diagnose(Patient patient, int k) {
+        return diagnose(patient.symptomBits(), k);
+    }
+
+    /**
+     * Returns the {@code k} ailments with the greatest posterior probability
+     * given the given symptoms, most probable first.
+     *
+     * @param symptoms The observed symptoms.
+     * @param k The maximum amount of ailments to return.
+     * @return A {@code Ranking} of the most probable ailments, scored by
+     *         posterior probability.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Ailment> diagnose(Collection<Symptom> symptoms, int k) {
+        return diagnose(SymptomDictionary.encode(symptoms), k);
+    }
+
+    /**
+     * Returns the {@code k} ailments with the greatest posterior probability
+     * given the symptoms encoded in the given bit set, most probable first.
+     *
+     * @param symptoms The observed symptoms, encoded against the
+     *        {@code SymptomDictionary}.
+     * @param k The maximum amount of ailments to return.
+     * @return A {@code Ranking} of the most probable ailments, scored by
+     *         posterior probability.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Ailment> diagnose(long[] symptoms, int k) {
+        Model m = model();
+        TopK<Ailment> top = new TopK<>(k);
+        int rows = m.ailments.length;
+        if (rows == 0) {
+            return top.toRanking();
+        }
+
+        // Symptoms past the stride of the model have never been trained on,
+        // and are skipped. Symptoms within it that no ailment was trained on
+        // still contribute their smoothed likelihood, like any other absent
+        // count.
+        int words = Math.min(symptoms.length, m.stride >>> 6);
+        double[] posterior = new double[rows];
+        double max = Double.NEGATIVE_INFINITY;
+        for (int a = 0; a < rows; a++) {
+            double log = m.logPrior[a];
+            int row = a * m.stride;
+            for (int w = 0; w < words; w++) {
+                for (long word = symptoms[w]; word != 0; word &= word - 1) {
+                    int s = (w << 6) + Long.numberOfTrailingZeros(word);
+                    log += m.logLikelihood[row + s];
+                }
+            }
+            posterior[a] = log;
+            max = Math.max(max, log);
+        }
+
+        // Normalize through the log-sum-exp of the joint probabilities.
+        double sum = 0.0;
+        for (int a = 0; a < rows; a++) {
+            sum += Math.exp(posterior[a] - max);
+        }
+        for (int a = 0; a < rows; a++) {
+            double probability = Math.exp(posterior[a] - max) / sum;
+            if (probability > top.threshold()) {
+                top.offer(m.ailments[a], probability);
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the current model, rebuilding the rows of every ailment trained
+     * since it was last built.
+     *
+     * @return The current model.
+     */
+    private Model model() {
+        Model m = model;
+        if (m != null) {
+            return m;
+        }
+        synchronized (this) {
+            if (model != null) {
+                return model;
+            }
+            int rows = ailmentIndices.size();
+            int columns = Math.max(SymptomDictionary.size(), 1);
+            Model last = previous;
+            boolean reuse = last != null && last.stride == stride
+                    && last.columns == columns;
+
+            double[] logPrior = new double[rows];
+            double priorDenominator = Math.log(diagnoses + smoothing * rows);
+            for (int a = 0; a < rows; a++) {
+                logPrior[a] = Math.log(patients[a] + smoothing)
+                        - priorDenominator;
+            }
+
+            double[] logLikelihood = new double[rows * stride];
+            if (reuse) {
+                System.arraycopy(last.logLikelihood, 0, logLikelihood, 0,
+                        last.logLikelihood.length);
+            }
+            for (int a = 0; a < rows; a++) {
+                if (reuse && a < last.ailments.length && !dirty[a]) {
+                    continue;
+                }
+                int row = a * stride;
+                double denominator =
+                        Math.log(totals[a] + smoothing * columns);
+                for (int s = 0; s < stride; s++) {
+                    logLikelihood[row + s] =
+                            Math.log(counts[row + s] + smoothing) - denominator;
+                }
+                dirty[a] = false;
+            }
+            m = new Model(
+                    Arrays.copyOf(ailments, rows),
+                    logPrior,
+                    logLikelihood,
+                    stride,
+                    columns);
+            previous = m;
+            model = m;
+            return m;
+        }
+    }
+
+    /**
+     * Returns the dense index of the given ailment, growing the tables if it
+     * is new. Must be called while holding the lock of this object.
+     *
+     * @param ailment The ailment whose index to return.
+     * @return The dense index of the given ailment.
+     */
+    private int ailmentIndex(Ailment ailment) {
+        int a = ailmentIndices.indexOf(ailment.getID());
+        if (a >= ailments.length) {
+            int capacity = Math.max(a + 1, ailments.length * 2);
+            ailments = Arrays.copyOf(ailments, capacity);
+            patients = Arrays.copyOf(patients, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+            counts = Arrays.copyOf(counts, capacity * stride);
+        }
+        if (ailments[a] == null) {
+            ailments[a] = ailment;
+        }
+        return a;
+    }
+
+    /**
+     * Widens the rows of the count table to hold at least the given amount of
+     * symptoms. Must be called while holding the lock of this object.
+     *
+     * @param columns The amount of symptoms the rows must hold.
+     */
+    private void ensureColumns(int columns) {
+        if (columns <= stride) {
+            return;
+        }
+        int wider = Math.max(columns, stride * 2);
+        int[] widened = new int[ailments.length * wider];
+        for (int a = 0; a < ailments.length; a++) {
+            System.arraycopy(counts, a * stride, widened, a * wider, stride);
+        }
+        counts = widened;
+        stride = wider;
+    }
+
+    /**
+     * An immutable snapshot of the log-probability tables.
+     */
+    private static final class Model {
+
+        /**
+         * The ailments, by dense index.
+         */
+        private final Ailment[] ailments;
+
+        /**
+         * The log prior probability of each ailment, by dense index.
+         */
+        private final double[] logPrior;
+
+        /**
+         * The log likelihood of each symptom given each ailment, stored
+         * row-major at {@code ailment * stride + symptom}.
+         */
+        private final double[] logLikelihood;
+
+        /**
+         * The row length of {@link #logLikelihood}.
+         */
+        private final int stride;
+
+        /**
+         * The vocabulary size the likelihoods were smoothed over.
+         */
+        private final int columns;
+
+        /**
+         * Constructs a {@code Model} with the given arguments.
+         *
+         * @param ailments The ailments, by dense index.
+         * @param logPrior The log prior probability of each ailment.
+         * @param logLikelihood The log likelihood table.
+         * @param stride The row length of the log likelihood table.
+         * @param columns The vocabulary size the likelihoods were smoothed
+         *        over.
+         */
+        private Model(
+                Ailment[] ailments,
+                double[] logPrior,
+                double[] logLikelihood,
+                int stride,
+                int columns)
+        {
+            this.ailments = ailments;
+            this.logPrior = logPrior;
+            this.logLikelihood = logLikelihood;
+            this.stride = stride;
+            this.columns = columns;
+        }
+
+    }
+
+}
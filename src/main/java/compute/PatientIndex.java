@@ -0,0 +1,725 @@
+package compute;
+
+import model.AgeGroup;
+import model.Gender;
+import model.Patient;
+import sql.access.AccessorListener;
+import util.primitive.Bits;
+import util.primitive.IntLongHashMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A precomputed index over historical patients, answering which of them are
+ * most similar to a given patient.
+ *
+ * <p> The similarity of two patients is the amount of symptoms they share, as
+ * in {@link Patient#compareTo(Patient)}, plus a fixed bonus if they belong to
+ * the same {@link AgeGroup} and another if they have the same {@link Gender}.
+ *
+ * <p> Patients are stored in flat primitive arrays: one bit set row per
+ * patient, and one byte per patient for each of its age group and gender.
+ * The bulk of the patients are held in base rows sorted in descending order of
+ * their amount of symptoms, which bounds the similarity they can achieve, so
+ * that a query stops as soon as no remaining patient can displace its
+ * {@code k}-th best. A query allocates nothing beyond its result.
+ *
+ * <p> The index is kept up to date by registering it with the patient
+ * accessor through
+ * {@link sql.access.BaseAccessor#addListener(AccessorListener)}. A write
+ * appends the patient to a small, unsorted delta, and masks out any row it
+ * replaces or removes, then swaps in a new immutable snapshot, so a query
+ * always runs against one consistent snapshot and is never blocked. Once the
+ * delta and masked rows grow beyond a fraction of the base, they are merged
+ * into new base rows in the background, and queries keep using the old
+ * snapshot until the merge is swapped in.
+ *
+ * @author Oliver Abdulrahim
+ */
+public class PatientIndex
+    implements AccessorListener<Patient>
+{
+
+    /**
+     * The default similarity bonus for patients in the same age group.
+     */
+    public static final double DEFAULT_AGE_GROUP_WEIGHT = 0.5;
+
+    /**
+     * The default similarity bonus for patients of the same gender.
+     */
+    public static final double DEFAULT_GENDER_WEIGHT = 0.25;
+
+    /**
+     * The minimum amount of delta or masked rows above which they are merged
+     * into the base rows.
+     */
+    private static final int MIN_DELTA = 256;
+
+    /**
+     * Marks a patient without an age group or gender.
+     */
+    private static final byte NONE = -1;
+
+    /**
+     * The similarity bonus for patients in the same age group.
+     */
+    private final double ageGroupWeight;
+
+    /**
+     * The similarity bonus for patients of the same gender.
+     */
+    private final double genderWeight;
+
+    /**
+     * The current snapshot of the index. Only replaced while holding the lock
+     * of this object.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * The position of each patient in the current snapshot by identification
+     * number, or {@code -1} for a removed patient. Guarded by {@code this}.
+     */
+    private IntLongHashMap positions;
+
+    /**
+     * The identification numbers of the patients written since the running
+     * merge captured its snapshot, or {@code null} if no merge is running.
+     * Guarded by {@code this}.
+     */
+    private IntLongHashMap written;
+
+    /**
+     * The running merge, or {@code null} if there is none. Guarded by
+     * {@code this}.
+     */
+    private CompletableFuture<Void> merge;
+
+    /**
+     * Constructs a {@code PatientIndex} over the given patients, with the
+     * default demographic weights.
+     *
+     * @param data The patients to index.
+     */
+    public PatientIndex(Collection<? extends Patient> data) {
+        this(data, DEFAULT_AGE_GROUP_WEIGHT, DEFAULT_GENDER_WEIGHT);
+    }
+
+    /**
+     * Constructs a {@code PatientIndex} over the given patients, with the
+     * given demographic weights.
+     *
+     * @param data The patients to index.
+     * @param ageGroupWeight The similarity bonus for patients in the same age
+     *        group.
+     * @param genderWeight The similarity bonus for patients of the same
+     *        gender.
+     * @throws IllegalArgumentException if either weight is negative.
+     */
+    public PatientIndex(
+            Collection<? extends Patient> data,
+            double ageGroupWeight,
+            double genderWeight)
+    {
+        if (!(ageGroupWeight >= 0.0) || !(genderWeight >= 0.0)) {
+            throw new IllegalArgumentException(
+                    "Age group weight : " + ageGroupWeight
+                    + ", gender weight : " + genderWeight);
+        }
+        this.ageGroupWeight = ageGroupWeight;
+        this.genderWeight = genderWeight;
+        this.positions = new IntLongHashMap(data.size());
+        this.snapshot = new Snapshot(
+                new Rows(0, 0),
+                new Rows(0, 0),
+                0,
+                new long[0],
+                0);
+        for (Patient p : data) {
+            write(p);
+        }
+        Snapshot s = snapshot;
+        IntLongHashMap merged = new IntLongHashMap(s.live);
+        install(s, build(s, merged), merged);
+    }
+
+    /**
+     * Returns the amount of patients in this index.
+     *
+     * @return The amount of indexed patients.
+     */
+    public int size() {
+        return snapshot.live;
+    }
+
+    /**
+     * Returns the similarity of the given patients.
+     *
+     * @param first The patient to compare with {@code second}.
+     * @param second The patient to compare with {@code first}.
+     * @return The similarity of the given patients.
+     */
+    public double similarity(Patient first, Patient second) {
+        double score = Bits.overlap(first.symptomBits(), second.symptomBits());
+        if (first.getAgeGroup() != null
+                && first.getAgeGroup() == second.getAgeGroup()) {
+            score += ageGroupWeight;
+        }
+        if (first.getGender() != null
+                && first.getGender() == second.getGender()) {
+            score += genderWeight;
+        }
+        return score;
+    }
+
+    /**
+     * Returns the {@code k} indexed patients most similar to the given one,
+     * most similar first. The given patient itself, or any indexed patient
+     * with the same identification number, is never returned.
+     *
+     * @param patient The patient whose most similar patients to return.
+     * @param k The maximum amount of patients to return.
+     * @return A {@code Ranking} of the patients most similar to the given one,
+     *         scored by their similarity.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Patient> similar(Patient patient, int k) {
+        Snapshot s = snapshot;
+        long[] query = patient.symptomBits();
+        int cardinality = Bits.cardinality(query);
+        byte ageGroup = ordinal(patient.getAgeGroup());
+        byte gender = ordinal(patient.getGender());
+        double bonus = ageGroupWeight + genderWeight;
+        int id = patient.getID();
+
+        TopK<Patient> top = new TopK<>(k);
+        Rows base = s.base;
+        for (int i = 0; i < base.patients.length; i++) {
+            double bound = Math.min(base.cardinalities[i], cardinality) + bonus;
+            if (bound <= top.threshold()) {
+                break;
+            }
+            double score = score(base, i, query, ageGroup, gender);
+            if (score > top.threshold() && base.ids[i] != id
+                    && !Bits.get(s.removed, i)) {
+                top.offer(base.patients[i], score);
+            }
+        }
+
+        Rows delta = s.delta;
+        int offset = base.patients.length;
+        for (int i = 0; i < s.deltaSize; i++) {
+            double bound =
+                    Math.min(delta.cardinalities[i], cardinality) + bonus;
+            if (bound <= top.threshold()) {
+                continue;
+            }
+            double score = score(delta, i, query, ageGroup, gender);
+            if (score > top.threshold() && delta.ids[i] != id
+                    && !Bits.get(s.removed, offset + i)) {
+                top.offer(delta.patients[i], score);
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Adds the given patient to this index, replacing any patient with the
+     * same identification number.
+     *
+     * @param patient The patient to add.
+     */
+    public synchronized void put(Patient patient) {
+        write(patient);
+        if (written != null) {
+            written.put(patient.getID(), 1L);
+        }
+        mergeIfNeeded();
+    }
+
+    /**
+     * Removes the patient with the same identification number as the given
+     * one from this index, if it is present.
+     *
+     * @param patient The patient to remove.
+     */
+    public synchronized void remove(Patient patient) {
+        int id = patient.getID();
+        long position = positions.getOrDefault(id, -1L);
+        if (position < 0) {
+            return;
+        }
+        Snapshot s = snapshot;
+        positions.put(id, -1L);
+        if (written != null) {
+            written.put(id, 1L);
+        }
+        snapshot = new Snapshot(
+                s.base,
+                s.delta,
+                s.deltaSize,
+                mask(s.removed, (int) position),
+                s.live - 1);
+        mergeIfNeeded();
+    }
+
+    /**
+     * Merges the delta and masked rows into new base rows in the background,
+     * unless a merge is already running. Queries are served from the current
+     * snapshot until the merge completes.
+     *
+     * @return A future completed once the running merge has been swapped in.
+     */
+    public synchronized CompletableFuture<Void> merge() {
+        if (merge == null) {
+            Snapshot from = snapshot;
+            written = new IntLongHashMap();
+            merge = CompletableFuture.runAsync(() -> merge(from));
+        }
+        return merge;
+    }
+
+    /**
+     * Adds the given patient to this index.
+     *
+     * @param patient The patient that was inserted.
+     */
+    @Override
+    public void inserted(Patient patient) {
+        put(patient);
+    }
+
+    /**
+     * Replaces the indexed patient with the same identification number as the
+     * given one.
+     *
+     * @param patient The patient containing the updated data.
+     */
+    @Override
+    public void updated(Patient patient) {
+        put(patient);
+    }
+
+    /**
+     * Removes the given patient from this index.
+     *
+     * @param patient The patient that was deleted.
+     */
+    @Override
+    public void deleted(Patient patient) {
+        remove(patient);
+    }
+
+    /**
+     * Returns the similarity of the given query to the patient at the given
+     * row of the given arrays.
+     *
+     * @param r The arrays holding the patient.
+     * @param row The row of the patient.
+     * @param query The symptom bit set of the query.
+     * @param ageGroup The age group ordinal of the query.
+     * @param gender The gender ordinal of the query.
+     * @return The similarity of the query to the patient.
+     */
+    private double score(
+            Rows r,
+            int row,
+            long[] query,
+            byte ageGroup,
+            byte gender)
+    {
+        int words = Math.min(r.stride, query.length);
+        long[] bits = r.bits;
+        int overlap = 0;
+        for (int w = 0, at = row * r.stride; w < words; w++) {
+            overlap += Long.bitCount(bits[at + w] & query[w]);
+        }
+        double score = overlap;
+        if (ageGroup != NONE && r.ageGroups[row] == ageGroup) {
+            score += ageGroupWeight;
+        }
+        if (gender != NONE && r.genders[row] == gender) {
+            score += genderWeight;
+        }
+        return score;
+    }
+
+    /**
+     * Appends the given patient to the delta rows, masking out the row of any
+     * patient it replaces, and swaps in the resulting snapshot. Must be called
+     * while holding the lock of this object.
+     *
+     * @param patient The patient to append.
+     */
+    private void write(Patient patient) {
+        Snapshot s = snapshot;
+        int id = patient.getID();
+        long[] bits = patient.symptomBits();
+        long position = positions.getOrDefault(id, -1L);
+        long[] removed = position < 0
+                ? s.removed
+                : mask(s.removed, (int) position);
+
+        Rows delta = s.delta;
+        int offset = s.base.patients.length;
+        if (s.deltaSize == delta.patients.length
+                || bits.length > delta.stride) {
+            delta = delta.copy(
+                    Math.max(MIN_DELTA, s.deltaSize * 2),
+                    Math.max(delta.stride, bits.length),
+                    s.deltaSize);
+            removed = Arrays.copyOf(removed,
+                    Bits.words(offset + delta.patients.length));
+        }
+        delta.set(s.deltaSize, patient, bits);
+        positions.put(id, offset + s.deltaSize);
+        snapshot = new Snapshot(
+                s.base,
+                delta,
+                s.deltaSize + 1,
+                removed,
+                position < 0 ? s.live + 1 : s.live);
+    }
+
+    /**
+     * Starts a merge if either the delta or the masked rows have grown beyond
+     * a fraction of the base rows. Must be called while holding the lock of
+     * this object.
+     */
+    private void mergeIfNeeded() {
+        Snapshot s = snapshot;
+        int stale = s.base.patients.length + s.deltaSize - s.live;
+        int limit = Math.max(MIN_DELTA, s.base.patients.length / 8);
+        if (merge == null && (s.deltaSize > limit || stale > limit)) {
+            merge();
+        }
+    }
+
+    /**
+     * Builds new base rows from the given snapshot and swaps them in. Runs in
+     * the background, without holding the lock of this object while
+     * building.
+     *
+     * @param from The snapshot to merge.
+     */
+    private void merge(Snapshot from) {
+        IntLongHashMap merged = new IntLongHashMap(from.live);
+        Rows base = null;
+        try {
+            base = build(from, merged);
+        }
+        finally {
+            synchronized (this) {
+                if (base != null) {
+                    install(from, base, merged);
+                }
+                written = null;
+                merge = null;
+            }
+        }
+    }
+
+    /**
+     * Swaps in a snapshot holding the given base rows, merged from the given
+     * snapshot, and the writes made since it was taken. Must be called while
+     * holding the lock of this object.
+     *
+     * @param from The snapshot the given base rows were built from.
+     * @param base The base rows built from the given snapshot.
+     * @param merged The row of each patient in the given base rows, by
+     *        identification number.
+     */
+    private void install(Snapshot from, Rows base, IntLongHashMap merged) {
+        Snapshot s = snapshot;
+        int n = base.patients.length;
+        int pending = s.deltaSize - from.deltaSize;
+        Rows delta = new Rows(Math.max(MIN_DELTA, pending), s.delta.stride);
+        long[] removed = new long[Bits.words(n + delta.patients.length)];
+        int live = n;
+        if (written != null) {
+            int[] ids = written.keys();
+            for (int id : ids) {
+                long row = merged.getOrDefault(id, -1L);
+                if (row >= 0) {
+                    Bits.set(removed, (int) row);
+                    merged.put(id, -1L);
+                    live--;
+                }
+            }
+        }
+
+        // Carry over the rows appended since the merge started that are still
+        // live, in order, into a fresh delta.
+        int size = 0;
+        int offset = s.base.patients.length;
+        for (int i = from.deltaSize; i < s.deltaSize; i++) {
+            if (!Bits.get(s.removed, offset + i)) {
+                delta.copyRow(s.delta, i, size);
+                merged.put(s.delta.ids[i], n + size);
+                size++;
+            }
+        }
+        positions = merged;
+        snapshot = new Snapshot(base, delta, size, removed, live + size);
+    }
+
+    /**
+     * Builds base rows holding the live patients of the given snapshot,
+     * sorted in descending order of their amount of symptoms by a counting
+     * sort.
+     *
+     * @param from The snapshot whose live patients to store.
+     * @param merged The map to store the row of each patient in, by
+     *        identification number.
+     * @return The base rows over the live patients of the given snapshot.
+     */
+    private static Rows build(Snapshot from, IntLongHashMap merged) {
+        Rows base = from.base;
+        Rows delta = from.delta;
+        int offset = base.patients.length;
+        int total = offset + from.deltaSize;
+        int stride = Math.max(base.stride, delta.stride);
+
+        // Count the live rows of each cardinality, then turn the counts into
+        // the first output row of each cardinality, greatest first.
+        int[] starts = new int[stride * Long.SIZE + 2];
+        for (int p = 0; p < total; p++) {
+            if (!Bits.get(from.removed, p)) {
+                starts[cardinality(base, delta, p) + 1]++;
+            }
+        }
+        int n = 0;
+        for (int c = starts.length - 1; c > 0; c--) {
+            int count = starts[c];
+            starts[c] = n;
+            n += count;
+        }
+
+        Rows r = new Rows(n, stride);
+        for (int p = 0; p < total; p++) {
+            if (!Bits.get(from.removed, p)) {
+                int row = starts[cardinality(base, delta, p) + 1]++;
+                if (p < offset) {
+                    r.copyRow(base, p, row);
+                }
+                else {
+                    r.copyRow(delta, p - offset, row);
+                }
+                merged.put(r.ids[row], row);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns the amount of symptoms of the patient at the given position of
+     * the given base and delta rows.
+     *
+     * @param base The base rows.
+     * @param delta The delta rows.
+     * @param position The position of the patient, counting the delta rows
+     *        after the base rows.
+     * @return The amount of symptoms of the patient at the given position.
+     */
+    private static int cardinality(Rows base, Rows delta, int position) {
+        int offset = base.patients.length;
+        return position < offset
+                ? base.cardinalities[position]
+                : delta.cardinalities[position - offset];
+    }
+
+    /**
+     * Returns a copy of the given bit set with the given bit set.
+     *
+     * @param set The bit set to copy.
+     * @param bit The bit to set in the copy.
+     * @return A copy of the given bit set with the given bit set.
+     */
+    private static long[] mask(long[] set, int bit) {
+        long[] copy = set.clone();
+        Bits.set(copy, bit);
+        return copy;
+    }
+
+    /**
+     * Returns the ordinal of the given constant as a byte, or {@link #NONE}
+     * if it is {@code null}.
+     *
+     * @param e The constant whose ordinal to return.
+     * @return The ordinal of the given constant.
+     */
+    private static byte ordinal(Enum<?> e) {
+        return e == null ? NONE : (byte) e.ordinal();
+    }
+
+    /**
+     * An immutable view of the index at one point in time.
+     */
+    private static final class Snapshot {
+
+        /**
+         * The bulk of the patients, sorted in descending order of their amount
+         * of symptoms.
+         */
+        private final Rows base;
+
+        /**
+         * The recently written patients, in the order they were written. The
+         * rows past {@link #deltaSize} may be filled by later writes.
+         */
+        private final Rows delta;
+
+        /**
+         * The amount of delta rows in this snapshot.
+         */
+        private final int deltaSize;
+
+        /**
+         * A bit set of the rows whose patients have been removed or replaced,
+         * counting the delta rows after the base rows.
+         */
+        private final long[] removed;
+
+        /**
+         * The amount of patients in this snapshot that are not removed.
+         */
+        private final int live;
+
+        /**
+         * Constructs a {@code Snapshot} with the given arguments.
+         *
+         * @param base The base rows.
+         * @param delta The delta rows.
+         * @param deltaSize The amount of delta rows in the snapshot.
+         * @param removed The bit set of removed rows.
+         * @param live The amount of patients that are not removed.
+         */
+        private Snapshot(
+                Rows base,
+                Rows delta,
+                int deltaSize,
+                long[] removed,
+                int live)
+        {
+            this.base = base;
+            this.delta = delta;
+            this.deltaSize = deltaSize;
+            this.removed = removed;
+            this.live = live;
+        }
+
+    }
+
+    /**
+     * Patients in flat primitive arrays, one row per patient.
+     */
+    private static final class Rows {
+
+        /**
+         * The patients, by row.
+         */
+        private final Patient[] patients;
+
+        /**
+         * The identification number of each patient, by row.
+         */
+        private final int[] ids;
+
+        /**
+         * The symptom bit set of each patient, stored at {@code row * stride}.
+         */
+        private final long[] bits;
+
+        /**
+         * The amount of words in each bit set row.
+         */
+        private final int stride;
+
+        /**
+         * The amount of symptoms of each patient, by row.
+         */
+        private final int[] cardinalities;
+
+        /**
+         * The age group ordinal of each patient, by row.
+         */
+        private final byte[] ageGroups;
+
+        /**
+         * The gender ordinal of each patient, by row.
+         */
+        private final byte[] genders;
+
+        /**
+         * Constructs empty {@code Rows} of the given dimensions.
+         *
+         * @param n The amount of patients.
+         * @param stride The amount of words in each bit set row.
+         */
+        private Rows(int n, int stride) {
+            this.patients = new Patient[n];
+            this.ids = new int[n];
+            this.bits = new long[n * stride];
+            this.stride = stride;
+            this.cardinalities = new int[n];
+            this.ageGroups = new byte[n];
+            this.genders = new byte[n];
+        }
+
+        /**
+         * Returns new {@code Rows} of the given dimensions holding the given
+         * amount of leading rows of this object.
+         *
+         * @param n The amount of patients.
+         * @param stride The amount of words in each bit set row.
+         * @param size The amount of leading rows to copy.
+         * @return A copy of the leading rows of this object.
+         */
+        private Rows copy(int n, int stride, int size) {
+            Rows r = new Rows(n, stride);
+            for (int row = 0; row < size; row++) {
+                r.copyRow(this, row, row);
+            }
+            return r;
+        }
+
+        /**
+         * Stores the given patient at the given row.
+         *
+         * @param row The row to store the patient at.
+         * @param p The patient to store.
+         * @param encoded The symptom bit set of the patient.
+         */
+        private void set(int row, Patient p, long[] encoded) {
+            patients[row] = p;
+            ids[row] = p.getID();
+            cardinalities[row] = Bits.cardinality(encoded);
+            ageGroups[row] = ordinal(p.getAgeGroup());
+            genders[row] = ordinal(p.getGender());
+            System.arraycopy(encoded, 0, bits, row * stride, encoded.length);
+        }
+
+        /**
+         * Copies the given row of the given {@code Rows} to the given row of
+         * this object, whose stride must be at least as large.
+         *
+         * @param from The rows to copy from.
+         * @param fromRow The row to copy.
+         * @param row The row to copy to.
+         */
+        private void copyRow(Rows from, int fromRow, int row) {
+            patients[row] = from.patients[fromRow];
+            ids[row] = from.ids[fromRow];
+            cardinalities[row] = from.cardinalities[fromRow];
+            ageGroups[row] = from.ageGroups[fromRow];
+            genders[row] = from.genders[fromRow];
+            System.arraycopy(from.bits, fromRow * from.stride,
+                    bits, row * stride, from.stride);
+        }
+
+    }
+
+}
@@ -0,0 +1,704 @@
+package compute;
+
+import util.primitive.Bits;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * An implementation of the {@link Matcher} interface that runs each query
+ * through a chain of stages, from cheapest to most expensive.
+ *
+ * <p> A pipeline has four kinds of stages, run in this order:
+ * <ol>
+ *     <li> a single <em>generation</em> stage, which selects the candidates
+ *          worth considering from the pool, typically through an index;
+ *     <li> any amount of <em>filter</em> stages, which discard candidates
+ *          that fail a cheap test, such as a demographic or required-symptom
+ *          check;
+ *     <li> a single <em>scoring</em> stage, which scores the remaining
+ *          candidates and retains the best of them; and
+ *     <li> any amount of <em>rerank</em> stages, which reorder the retained
+ *          candidates.
+ * </ol>
+ * A query ends as soon as a stage leaves no candidates, without running the
+ * stages after it.
+ *
+ * <p> Every stage records the amount of candidates it received and kept, and
+ * the time it took, across all queries. These are reported by
+ * {@link #statistics()}, showing where the latency of a query goes and which
+ * filters are worth moving earlier.
+ *
+ * <p> Pipelines are assembled with a {@link Builder}:
+ * <pre>{@code
+ * Matcher<Patient> matcher = Pipeline.<Patient>builder()
+ *         .generate("index", Matcher.indexed(Patient :: getSymptoms), 500)
+ *         .filter("gender", Pipeline.same(Patient :: getGender))
+ *         .score("jaccard", Scorer.jaccard(Patient :: symptomBits), 50)
+ *         .build();
+ * }</pre>
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public final class Pipeline<T extends Comparable<? super T>>
+    implements Matcher<T>
+{
+
+    /**
+     * Reorders the candidates retained by the scoring stage of a pipeline.
+     *
+     * <p>This is a <em>functional interface</em> whose functional method is
+     * {@link #rerank(Ranking, Object)}.
+     *
+     * @param <T> The type of the candidates.
+     */
+    @FunctionalInterface
+    public interface Reranker<T> {
+
+        /**
+         * Returns the given candidates in a new order, possibly with new
+         * scores, and possibly without some of them.
+         *
+         * @param ranking The candidates to reorder, best first.
+         * @param t The base object the candidates were scored against.
+         * @return The reordered candidates, best first.
+         */
+        Ranking<T> rerank(Ranking<T> ranking, T t);
+
+    }
+
+    /**
+     * The generation stage.
+     */
+    private final Stage generation;
+
+    /**
+     * Selects the candidates worth considering from a pool.
+     */
+    private final BiFunction<Collection<? extends T>, ? super T,
+            Collection<? extends T>> generator;
+
+    /**
+     * Prepares the generation stage for a candidate pool.
+     */
+    private final Consumer<Collection<? extends T>> preparer;
+
+    /**
+     * The filter stages, in order.
+     */
+    private final List<Stage> filterStages;
+
+    /**
+     * The tests of the filter stages, parallel to {@link #filterStages}.
+     */
+    private final List<BiPredicate<? super T, ? super T>> filters;
+
+    /**
+     * The scoring stage.
+     */
+    private final Stage scoring;
+
+    /**
+     * Scores the candidates that pass every filter.
+     */
+    private final Scorer<? super T> scorer;
+
+    /**
+     * The minimum amount of candidates retained by the scoring stage.
+     */
+    private final int depth;
+
+    /**
+     * The rerank stages, in order.
+     */
+    private final List<Stage> rerankStages;
+
+    /**
+     * The rerankers of the rerank stages, parallel to {@link #rerankStages}.
+     */
+    private final List<Reranker<T>> rerankers;
+
+    /**
+     * Constructs a {@code Pipeline} from the given builder.
+     *
+     * @param builder The builder holding the stages of the pipeline.
+     */
+    private Pipeline(Builder<T> builder) {
+        this.generation = new Stage(builder.generationName);
+        this.generator = builder.generator;
+        this.preparer = builder.preparer;
+        this.filterStages = stages(builder.filterNames);
+        this.filters = new ArrayList<>(builder.filters);
+        this.scoring = new Stage(builder.scoringName);
+        this.scorer = builder.scorer;
+        this.depth = builder.depth;
+        this.rerankStages = stages(builder.rerankNames);
+        this.rerankers = new ArrayList<>(builder.rerankers);
+    }
+
+    /**
+     * Returns a new, empty {@link Builder}.
+     *
+     * @param <T> The type of the objects to match.
+     * @return A new {@code Builder}.
+     */
+    public static <T extends Comparable<? super T>> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns a filter passing the candidates that share the given attribute
+     * with the query, such as its age group or gender. Candidates and queries
+     * whose attribute is {@code null} always pass.
+     *
+     * @param attribute The function returning the attribute of an object.
+     * @param <T> The type of the objects to filter.
+     * @return A filter on equality of the given attribute.
+     */
+    public static <T> BiPredicate<T, T> same(Function<? super T, ?> attribute) {
+        return (candidate, t) -> {
+            Object a = attribute.apply(candidate);
+            Object b = attribute.apply(t);
+            return a == null || b == null || a.equals(b);
+        };
+    }
+
+    /**
+     * Returns a filter passing the candidates whose bit set encoding contains
+     * every bit of the given one, such as the encoding of a set of required
+     * symptoms.
+     *
+     * @param bits The function returning the bit set encoding of an object.
+     * @param required The bits every candidate must contain.
+     * @param <T> The type of the objects to filter.
+     * @return A filter on containment of the given bits.
+     * @see Bits#isSubset(long[], long[])
+     */
+    public static <T> BiPredicate<T, T> containsAll(
+            Function<? super T, long[]> bits,
+            long[] required)
+    {
+        long[] copy = required.clone();
+        return (candidate, t) -> Bits.isSubset(copy, bits.apply(candidate));
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} that is closest to
+     * the given one, according to this pipeline.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return The best object the pipeline finds, or {@code null} if it finds
+     *         none.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Runs the given query through every stage of this pipeline, returning
+     * the {@code k} best candidates that remain.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the best candidates, best first.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        long start = System.nanoTime();
+        Collection<? extends T> generated = generator.apply(data, t);
+        start = generation.record(data.size(), generated.size(), start);
+        if (generated.isEmpty()) {
+            return Ranking.empty();
+        }
+
+        List<T> candidates = new ArrayList<>(generated);
+        for (int f = 0; f < filters.size(); f++) {
+            BiPredicate<? super T, ? super T> filter = filters.get(f);
+            List<T> passed = new ArrayList<>(candidates.size());
+            for (T candidate : candidates) {
+                if (filter.test(candidate, t)) {
+                    passed.add(candidate);
+                }
+            }
+            start = filterStages.get(f)
+                    .record(candidates.size(), passed.size(), start);
+            if (passed.isEmpty()) {
+                return Ranking.empty();
+            }
+            candidates = passed;
+        }
+
+        TopK<T> top = new TopK<>(rerankers.isEmpty() ? k : Math.max(k, depth));
+        for (T candidate : candidates) {
+            top.offer(candidate, scorer.score(candidate, t));
+        }
+        Ranking<T> ranking = top.toRanking();
+        start = scoring.record(candidates.size(), ranking.size(), start);
+
+        for (int r = 0; r < rerankers.size() && !ranking.isEmpty(); r++) {
+            int in = ranking.size();
+            ranking = rerankers.get(r).rerank(ranking, t);
+            start = rerankStages.get(r).record(in, ranking.size(), start);
+        }
+        return ranking.limit(k);
+    }
+
+    /**
+     * Prepares the generation stage for the given candidate pool, building
+     * the index of its {@code Matcher} if it has one.
+     *
+     * @param data The candidate pool to prepare.
+     */
+    @Override
+    public void prepare(Collection<? extends T> data) {
+        preparer.accept(data);
+    }
+
+    /**
+     * Returns the statistics of every stage of this pipeline, in the order
+     * the stages run.
+     *
+     * @return A {@code List} of the statistics of every stage.
+     */
+    public List<Statistics> statistics() {
+        List<Statistics> statistics = new ArrayList<>();
+        statistics.add(generation.statistics());
+        for (Stage stage : filterStages) {
+            statistics.add(stage.statistics());
+        }
+        statistics.add(scoring.statistics());
+        for (Stage stage : rerankStages) {
+            statistics.add(stage.statistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns a new stage for each of the given names.
+     *
+     * @param names The names of the stages.
+     * @return A {@code List} of new stages with the given names.
+     */
+    private static List<Stage> stages(List<String> names) {
+        List<Stage> stages = new ArrayList<>(names.size());
+        for (String name : names) {
+            stages.add(new Stage(name));
+        }
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Records the cardinality and latency of a single stage.
+     */
+    private static final class Stage {
+
+        /**
+         * The name of the stage.
+         */
+        private final String name;
+
+        /**
+         * The amount of times the stage has run.
+         */
+        private final LongAdder runs;
+
+        /**
+         * The amount of candidates the stage has received.
+         */
+        private final LongAdder in;
+
+        /**
+         * The amount of candidates the stage has kept.
+         */
+        private final LongAdder out;
+
+        /**
+         * The nanoseconds the stage has taken.
+         */
+        private final LongAdder nanos;
+
+        /**
+         * Constructs a {@code Stage} with the given name.
+         *
+         * @param name The name of the stage.
+         */
+        private Stage(String name) {
+            this.name = name;
+            this.runs = new LongAdder();
+            this.in = new LongAdder();
+            this.out = new LongAdder();
+            this.nanos = new LongAdder();
+        }
+
+        /**
+         * Records a single run of this stage that began at the given time,
+         * returning the time at which it ended.
+         *
+         * @param received The amount of candidates received.
+         * @param kept The amount of candidates kept.
+         * @param start The {@link System#nanoTime()} the run began at.
+         * @return The {@link System#nanoTime()} the run ended at.
+         */
+        private long record(int received, int kept, long start) {
+            long end = System.nanoTime();
+            runs.increment();
+            in.add(received);
+            out.add(kept);
+            nanos.add(end - start);
+            return end;
+        }
+
+        /**
+         * Returns the statistics this stage has recorded so far.
+         *
+         * @return The statistics of this stage.
+         */
+        private Statistics statistics() {
+            return new Statistics(
+                    name,
+                    runs.sum(),
+                    in.sum(),
+                    out.sum(),
+                    nanos.sum());
+        }
+
+    }
+
+    /**
+     * The cardinality and latency of a single stage, accumulated over every
+     * query.
+     */
+    public static final class Statistics {
+
+        /**
+         * The name of the stage.
+         */
+        private final String name;
+
+        /**
+         * The amount of times the stage has run.
+         */
+        private final long runs;
+
+        /**
+         * The amount of candidates the stage has received.
+         */
+        private final long in;
+
+        /**
+         * The amount of candidates the stage has kept.
+         */
+        private final long out;
+
+        /**
+         * The nanoseconds the stage has taken.
+         */
+        private final long nanos;
+
+        /**
+         * Constructs a {@code Statistics} with the given arguments.
+         *
+         * @param name The name of the stage.
+         * @param runs The amount of times the stage has run.
+         * @param in The amount of candidates the stage has received.
+         * @param out The amount of candidates the stage has kept.
+         * @param nanos The nanoseconds the stage has taken.
+         */
+        private Statistics(
+                String name,
+                long runs,
+                long in,
+                long out,
+                long nanos)
+        {
+            this.name = name;
+            this.runs = runs;
+            this.in = in;
+            this.out = out;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the name of the stage.
+         *
+         * @return The name of the stage.
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Returns the amount of times the stage has run.
+         *
+         * @return The amount of runs of the stage.
+         */
+        public long runs() {
+            return runs;
+        }
+
+        /**
+         * Returns the amount of candidates the stage has received.
+         *
+         * @return The amount of candidates received.
+         */
+        public long in() {
+            return in;
+        }
+
+        /**
+         * Returns the amount of candidates the stage has kept.
+         *
+         * @return The amount of candidates kept.
+         */
+        public long out() {
+            return out;
+        }
+
+        /**
+         * Returns the total nanoseconds the stage has taken.
+         *
+         * @return The nanoseconds taken by the stage.
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Returns the fraction of received candidates the stage has kept, or
+         * {@code 1} if it has received none.
+         *
+         * @return The selectivity of the stage.
+         */
+        public double selectivity() {
+            return in == 0 ? 1.0 : (double) out / in;
+        }
+
+        /**
+         * Returns a {@code String} containing the name, cardinalities, and
+         * latency of the stage.
+         *
+         * @return A {@code String} representation of this object.
+         */
+        @Override
+        public String toString() {
+            return "Stage[" + name
+                    + ", runs=" + runs
+                    + ", in=" + in
+                    + ", out=" + out
+                    + ", nanos=" + nanos
+                    + "]";
+        }
+
+    }
+
+    /**
+     * Assembles the stages of a {@link Pipeline}. A pipeline without a
+     * generation stage considers the whole candidate pool; a scoring stage is
+     * required.
+     *
+     * @param <T> The type of the objects to match.
+     */
+    public static final class Builder<T extends Comparable<? super T>> {
+
+        /**
+         * The name of the generation stage.
+         */
+        private String generationName = "all";
+
+        /**
+         * Selects the candidates worth considering from a pool.
+         */
+        private BiFunction<Collection<? extends T>, ? super T,
+                Collection<? extends T>> generator = (data, t) -> data;
+
+        /**
+         * Prepares the generation stage for a candidate pool.
+         */
+        private Consumer<Collection<? extends T>> preparer = data -> { };
+
+        /**
+         * The names of the filter stages, in order.
+         */
+        private final List<String> filterNames = new ArrayList<>();
+
+        /**
+         * The tests of the filter stages, in order.
+         */
+        private final List<BiPredicate<? super T, ? super T>> filters =
+                new ArrayList<>();
+
+        /**
+         * The name of the scoring stage.
+         */
+        private String scoringName;
+
+        /**
+         * Scores the candidates that pass every filter.
+         */
+        private Scorer<? super T> scorer;
+
+        /**
+         * The minimum amount of candidates retained by the scoring stage.
+         */
+        private int depth;
+
+        /**
+         * The names of the rerank stages, in order.
+         */
+        private final List<String> rerankNames = new ArrayList<>();
+
+        /**
+         * The rerankers of the rerank stages, in order.
+         */
+        private final List<Reranker<T>> rerankers = new ArrayList<>();
+
+        /**
+         * Constructs an empty {@code Builder}.
+         */
+        private Builder() {
+
+        }
+
+        /**
+         * Sets the generation stage to the given function, which returns the
+         * candidates worth considering from a pool for a given query.
+         *
+         * @param name The name of the stage.
+         * @param generator The function selecting candidates from a pool.
+         * @return This object.
+         * @throws NullPointerException if any of the given arguments is
+         *         {@code null}.
+         */
+        public Builder<T> generate(
+                String name,
+                BiFunction<Collection<? extends T>, ? super T,
+                        Collection<? extends T>> generator)
+        {
+            this.generationName = Objects.requireNonNull(name);
+            this.generator = Objects.requireNonNull(generator);
+            this.preparer = data -> { };
+            return this;
+        }
+
+        /**
+         * Sets the generation stage to the given {@code Matcher}, which
+         * selects at most the given amount of candidates from a pool for a
+         * given query.
+         *
+         * @param name The name of the stage.
+         * @param matcher The matcher selecting candidates from a pool.
+         * @param limit The maximum amount of candidates to select.
+         * @return This object.
+         * @throws NullPointerException if any of the given objects is
+         *         {@code null}.
+         * @throws IllegalArgumentException if the given limit is negative.
+         */
+        public Builder<T> generate(String name, Matcher<T> matcher, int limit) {
+            Objects.requireNonNull(matcher);
+            if (limit < 0) {
+                throw new IllegalArgumentException("Limit : " + limit);
+            }
+            generate(name,
+                    (data, t) -> matcher.rank(data, t, limit).candidates());
+            this.preparer = matcher :: prepare;
+            return this;
+        }
+
+        /**
+         * Appends a filter stage passing only the candidates for which the
+         * given test, applied to the candidate and the query, holds.
+         *
+         * @param name The name of the stage.
+         * @param filter The test applied to each candidate and the query.
+         * @return This object.
+         * @throws NullPointerException if any of the given arguments is
+         *         {@code null}.
+         */
+        public Builder<T> filter(
+                String name,
+                BiPredicate<? super T, ? super T> filter)
+        {
+            filterNames.add(Objects.requireNonNull(name));
+            filters.add(Objects.requireNonNull(filter));
+            return this;
+        }
+
+        /**
+         * Sets the scoring stage to the given {@code Scorer}. If the pipeline
+         * has rerank stages, the scoring stage retains at least the given
+         * amount of candidates for them; otherwise it retains exactly as many
+         * as the query asks for.
+         *
+         * @param name The name of the stage.
+         * @param scorer The function scoring each candidate.
+         * @param depth The minimum amount of candidates to retain for
+         *        reranking.
+         * @return This object.
+         * @throws NullPointerException if any of the given objects is
+         *         {@code null}.
+         * @throws IllegalArgumentException if the given depth is negative.
+         */
+        public Builder<T> score(
+                String name,
+                Scorer<? super T> scorer,
+                int depth)
+        {
+            if (depth < 0) {
+                throw new IllegalArgumentException("Depth : " + depth);
+            }
+            this.scoringName = Objects.requireNonNull(name);
+            this.scorer = Objects.requireNonNull(scorer);
+            this.depth = depth;
+            return this;
+        }
+
+        /**
+         * Appends a rerank stage applying the given {@code Reranker}.
+         *
+         * @param name The name of the stage.
+         * @param reranker The function reordering the retained candidates.
+         * @return This object.
+         * @throws NullPointerException if any of the given arguments is
+         *         {@code null}.
+         */
+        public Builder<T> rerank(String name, Reranker<T> reranker) {
+            rerankNames.add(Objects.requireNonNull(name));
+            rerankers.add(Objects.requireNonNull(reranker));
+            return this;
+        }
+
+        /**
+         * Returns a new {@code Pipeline} with the stages of this builder.
+         *
+         * @return A new {@code Pipeline}.
+         * @throws IllegalStateException if no scoring stage was set.
+         */
+        public Pipeline<T> build() {
+            if (scorer == null) {
+                throw new IllegalStateException("No scoring stage");
+            }
+            return new Pipeline<>(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,206 @@
+package compute;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable, ordered list of candidates paired with their scores, best
+ * candidate first.
+ *
+ * @param <T> The type of the ranked candidates.
+ * @author Oliver Abdulrahim
+ */
+public final class Ranking<T> {
+
+    /**
+     * The ranked candidates, best first.
+     */
+    private final Object[] items;
+
+    /**
+     * The scores of the ranked candidates, parallel to {@link #items}.
+     */
+    private final double[] scores;
+
+    /**
+     * Whether the candidates were ranked by a search that stopped early.
+     */
+    private final boolean partial;
+
+    /**
+     * Constructs a complete {@code Ranking} over the given arrays, which must
+     * already be sorted in descending order of score. The arrays are not
+     * copied.
+     *
+     * @param items The ranked candidates.
+     * @param scores The scores of the ranked candidates.
+     */
+    Ranking(Object[] items, double[] scores) {
+        this(items, scores, false);
+    }
+
+    /**
+     * Constructs a {@code Ranking} over the given arrays, which must already
+     * be sorted in descending order of score. The arrays are not copied.
+     *
+     * @param items The ranked candidates.
+     * @param scores The scores of the ranked candidates.
+     * @param partial Whether the candidates were ranked by a search that
+     *        stopped early.
+     */
+    Ranking(Object[] items, double[] scores, boolean partial) {
+        this.items = items;
+        this.scores = scores;
+        this.partial = partial;
+    }
+
+    /**
+     * Returns an empty {@code Ranking}.
+     *
+     * @param <T> The type of the ranked candidates.
+     * @return An empty {@code Ranking}.
+     */
+    public static <T> Ranking<T> empty() {
+        return new Ranking<>(new Object[0], new double[0]);
+    }
+
+    /**
+     * Returns the amount of candidates in this {@code Ranking}.
+     *
+     * @return The amount of candidates in this {@code Ranking}.
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns {@code true} if this {@code Ranking} contains no candidates,
+     * {@code false} otherwise.
+     *
+     * @return {@code true} if this {@code Ranking} is empty, {@code false}
+     *         otherwise.
+     */
+    public boolean isEmpty() {
+        return items.length == 0;
+    }
+
+    /**
+     * Returns {@code true} if this {@code Ranking} was produced by a search
+     * that stopped before considering every candidate, such as one that ran
+     * out of time, {@code false} if it is exact. A partial ranking holds the
+     * best candidates found, which may not be the best overall.
+     *
+     * @return {@code true} if this {@code Ranking} may not be exact.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Returns a {@code Ranking} of the same candidates as this one, marked as
+     * partial.
+     *
+     * @return A partial {@code Ranking} of the candidates of this one.
+     */
+    Ranking<T> toPartial() {
+        return partial ? this : new Ranking<>(items, scores, true);
+    }
+
+    /**
+     * Returns the candidate at the given rank, where {@code 0} is the best.
+     *
+     * @param rank The rank of the candidate.
+     * @return The candidate at the given rank.
+     * @throws IndexOutOfBoundsException if the given rank is out of range.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int rank) {
+        return (T) items[rank];
+    }
+
+    /**
+     * Returns the score of the candidate at the given rank.
+     *
+     * @param rank The rank of the candidate.
+     * @return The score of the candidate at the given rank.
+     * @throws IndexOutOfBoundsException if the given rank is out of range.
+     */
+    public double score(int rank) {
+        return scores[rank];
+    }
+
+    /**
+     * Returns a {@code Ranking} of at most the given amount of the best
+     * candidates of this one.
+     *
+     * @param k The maximum amount of candidates to retain.
+     * @return This object if it holds at most {@code k} candidates, or a new
+     *         {@code Ranking} of its best {@code k} candidates, partial if
+     *         this one is.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<T> limit(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Limit : " + k);
+        }
+        if (k >= items.length) {
+            return this;
+        }
+        return new Ranking<>(
+                Arrays.copyOf(items, k),
+                Arrays.copyOf(scores, k),
+                partial);
+    }
+
+    /**
+     * Returns an {@code Optional} containing the best candidate, or an empty
+     * one if this {@code Ranking} is empty.
+     *
+     * @return An {@code Optional} containing the best candidate.
+     */
+    public Optional<T> best() {
+        return isEmpty() ? Optional.empty() : Optional.ofNullable(get(0));
+    }
+
+    /**
+     * Returns an unmodifiable {@code List} view of the ranked candidates, best
+     * first.
+     *
+     * @return A {@code List} view of the ranked candidates.
+     */
+    public List<T> candidates() {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return Ranking.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return Ranking.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns a {@code String} containing the candidates of this
+     * {@code Ranking} and their scores, best first.
+     *
+     * @return A {@code String} representation of this object.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(
+                partial ? "Ranking(partial)[" : "Ranking[");
+        for (int i = 0; i < items.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(items[i]).append('=').append(scores[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+}
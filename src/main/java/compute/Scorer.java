@@ -0,0 +1,77 @@
+package compute;
+
+import util.primitive.Bits;
+
+import java.util.function.Function;
+
+/**
+ * Represents a function that measures how similar a candidate is to a base
+ * object. Greater scores denote more similar candidates.
+ *
+ * <p>This is a <em>functional interface</em> whose functional method is
+ * {@link #score(Object, Object)}.
+ *
+ * @param <T> The type of the objects to score.
+ * @author Oliver Abdulrahim
+ */
+@FunctionalInterface
+public interface Scorer<T> {
+
+    /**
+     * Returns the similarity of the given candidate to the given base object.
+     *
+     * @param candidate The candidate to score.
+     * @param t The base object to score the candidate against.
+     * @return The similarity of the given candidate to the base object, where
+     *         greater values are more similar.
+     */
+    double score(T candidate, T t);
+
+    /**
+     * Returns a {@code Scorer} that scores objects by the amount of bits their
+     * encodings share.
+     *
+     * @param bits The function returning the bit set encoding of an object,
+     *        for example {@code Ailment :: symptomBits}.
+     * @param <T> The type of the objects to score.
+     * @return A {@code Scorer} computing the overlap of bit set encodings.
+     * @see Bits#overlap(long[], long[])
+     */
+    static <T> Scorer<T> overlap(Function<? super T, long[]> bits) {
+        return (candidate, t) ->
+                Bits.overlap(bits.apply(candidate), bits.apply(t));
+    }
+
+    /**
+     * Returns a {@code Scorer} that scores objects by the Jaccard similarity
+     * of their bit set encodings.
+     *
+     * @param bits The function returning the bit set encoding of an object,
+     *        for example {@code Ailment :: symptomBits}.
+     * @param <T> The type of the objects to score.
+     * @return A {@code Scorer} computing the Jaccard similarity of bit set
+     *         encodings.
+     * @see Bits#jaccard(long[], long[])
+     */
+    static <T> Scorer<T> jaccard(Function<? super T, long[]> bits) {
+        return (candidate, t) ->
+                Bits.jaccard(bits.apply(candidate), bits.apply(t));
+    }
+
+    /**
+     * Returns a {@code Scorer} that scores objects by the Dice similarity of
+     * their bit set encodings.
+     *
+     * @param bits The function returning the bit set encoding of an object,
+     *        for example {@code Ailment :: symptomBits}.
+     * @param <T> The type of the objects to score.
+     * @return A {@code Scorer} computing the Dice similarity of bit set
+     *         encodings.
+     * @see Bits#dice(long[], long[])
+     */
+    static <T> Scorer<T> dice(Function<? super T, long[]> bits) {
+        return (candidate, t) ->
+                Bits.dice(bits.apply(candidate), bits.apply(t));
+    }
+
+}
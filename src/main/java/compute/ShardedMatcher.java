@@ -0,0 +1,491 @@
+package compute;
+
+import model.AgeGroup;
+import model.Gender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An implementation of the {@link Matcher} interface that partitions its
+ * candidate pool by {@link AgeGroup} and {@link Gender}, and only searches the
+ * partitions that apply to each query.
+ *
+ * <p> Each candidate is placed in the shard of its age group and gender.
+ * Candidates without an age group, or without a gender, are unrestricted in
+ * that dimension, and are placed in a shard that applies to every age group,
+ * or every gender, respectively. A query with a given age group and gender
+ * therefore searches at most four shards: its own, the two shards unrestricted
+ * in one dimension, and the shard unrestricted in both. A query without an age
+ * group or gender searches every shard in that dimension.
+ *
+ * <p> Every shard is searched by its own delegate matcher, which is prepared
+ * over the shard when the candidate pool is indexed. Shards are prepared in
+ * parallel. Each shard records its size and the time spent searching it, so
+ * that skew between shards can be observed through
+ * {@link #statistics(Collection)}.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class ShardedMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, ShardedMatcher.Shards<T>>
+{
+
+    /**
+     * The age groups, by ordinal. The shard unrestricted by age group takes
+     * the next index.
+     */
+    private static final AgeGroup[] AGE_GROUPS = AgeGroup.values();
+
+    /**
+     * The genders, by ordinal. The shard unrestricted by gender takes the next
+     * index.
+     */
+    private static final Gender[] GENDERS = Gender.values();
+
+    /**
+     * The amount of shards, including those unrestricted in either dimension.
+     */
+    private static final int SHARDS =
+            (AGE_GROUPS.length + 1) * (GENDERS.length + 1);
+
+    /**
+     * Supplies a new delegate matcher for each shard.
+     */
+    private final Supplier<? extends Matcher<T>> delegates;
+
+    /**
+     * The function returning the age group of an object, or {@code null} if it
+     * has none.
+     */
+    private final Function<? super T, AgeGroup> ageGroup;
+
+    /**
+     * The function returning the gender of an object, or {@code null} if it
+     * has none.
+     */
+    private final Function<? super T, Gender> gender;
+
+    /**
+     * The amount of searches of each shard.
+     */
+    private final LongAdder[] searches;
+
+    /**
+     * The nanoseconds spent searching each shard.
+     */
+    private final LongAdder[] nanos;
+
+    /**
+     * Constructs a {@code ShardedMatcher} with the given arguments.
+     *
+     * @param delegates Supplies a new delegate matcher for each shard.
+     * @param ageGroup The function returning the age group of an object, or
+     *        {@code null} if the object is not restricted to one.
+     * @param gender The function returning the gender of an object, or
+     *        {@code null} if the object is not restricted to one.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public ShardedMatcher(
+            Supplier<? extends Matcher<T>> delegates,
+            Function<? super T, AgeGroup> ageGroup,
+            Function<? super T, Gender> gender)
+    {
+        this.delegates = Objects.requireNonNull(delegates);
+        this.ageGroup = Objects.requireNonNull(ageGroup);
+        this.gender = Objects.requireNonNull(gender);
+        this.searches = new LongAdder[SHARDS];
+        this.nanos = new LongAdder[SHARDS];
+        for (int shard = 0; shard < SHARDS; shard++) {
+            searches[shard] = new LongAdder();
+            nanos[shard] = new LongAdder();
+        }
+    }
+
+    /**
+     * Partitions the given candidate pool into shards, and prepares a new
+     * delegate matcher over each non-empty shard in parallel.
+     *
+     * @param data The candidate pool to index.
+     * @return The shards of the given candidate pool.
+     */
+    @Override
+    protected Shards<T> buildIndex(Collection<? extends T> data) {
+        List<List<T>> partitions = new ArrayList<>(SHARDS);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (T candidate : data) {
+            partitions.get(shardOf(
+                    ageGroup.apply(candidate),
+                    gender.apply(candidate))).add(candidate);
+        }
+
+        List<T>[] candidates = newArray(SHARDS);
+        List<Matcher<T>> matchers = new ArrayList<>(SHARDS);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            List<T> partition = partitions.get(shard);
+            candidates[shard] = partition.isEmpty()
+                    ? Collections.emptyList()
+                    : Collections.unmodifiableList(partition);
+            matchers.add(partition.isEmpty() ? null : delegates.get());
+        }
+        Arrays.stream(newIndices())
+                .parallel()
+                .filter(shard -> matchers.get(shard) != null)
+                .forEach(shard ->
+                        matchers.get(shard).prepare(candidates[shard]));
+        return new Shards<>(candidates, matchers);
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} closest to the given
+     * one, among the shards that apply to it.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if no shard that applies contains one.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} closest to
+     * the given one, among the shards that apply to its age group and gender.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        return rank(data, t, k, ageGroup.apply(t), gender.apply(t));
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} closest to
+     * the given one, among the shards that apply to the given cohort.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @param group The age group of the cohort, or {@code null} to search
+     *        every age group.
+     * @param g The gender of the cohort, or {@code null} to search every
+     *        gender.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<T> rank(
+            Collection<? extends T> data,
+            T t,
+            int k,
+            AgeGroup group,
+            Gender g)
+    {
+        Shards<T> shards = index(data);
+        TopK<T> top = new TopK<>(k);
+        for (int a = 0; a <= AGE_GROUPS.length; a++) {
+            if (group != null && a != group.ordinal()
+                    && a != AGE_GROUPS.length) {
+                continue;
+            }
+            for (int s = 0; s <= GENDERS.length; s++) {
+                if (g != null && s != g.ordinal() && s != GENDERS.length) {
+                    continue;
+                }
+                int shard = a * (GENDERS.length + 1) + s;
+                if (shards.matchers.get(shard) != null) {
+                    Ranking<T> ranking = search(shards, shard, t, k);
+                    for (int i = 0; i < ranking.size(); i++) {
+                        top.offer(ranking.get(i), ranking.score(i));
+                    }
+                }
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the {@code k} objects closest to the given one within exactly
+     * the given shard.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @param group The age group of the shard, or {@code null} for the shard
+     *        unrestricted by age group.
+     * @param g The gender of the shard, or {@code null} for the shard
+     *        unrestricted by gender.
+     * @return A {@code Ranking} of the candidates in the given shard closest
+     *         to the given object.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<T> rankShard(
+            Collection<? extends T> data,
+            T t,
+            int k,
+            AgeGroup group,
+            Gender g)
+    {
+        Shards<T> shards = index(data);
+        int shard = shardOf(group, g);
+        if (shards.matchers.get(shard) == null) {
+            return new TopK<T>(k).toRanking();
+        }
+        return search(shards, shard, t, k);
+    }
+
+    /**
+     * Returns the statistics of every shard, including those unrestricted in
+     * either dimension. Sizes are those of the most recently indexed pool,
+     * whereas searches and latencies accumulate over the lifetime of this
+     * object.
+     *
+     * @param data The candidate pool whose shard sizes to report.
+     * @return A {@code List} of the statistics of every shard.
+     */
+    public List<Statistics> statistics(Collection<? extends T> data) {
+        Shards<T> shards = index(data);
+        List<Statistics> statistics = new ArrayList<>(SHARDS);
+        for (int a = 0; a <= AGE_GROUPS.length; a++) {
+            for (int s = 0; s <= GENDERS.length; s++) {
+                int shard = a * (GENDERS.length + 1) + s;
+                statistics.add(new Statistics(
+                        a < AGE_GROUPS.length ? AGE_GROUPS[a] : null,
+                        s < GENDERS.length ? GENDERS[s] : null,
+                        shards.candidates[shard].size(),
+                        searches[shard].sum(),
+                        nanos[shard].sum()));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Searches the given shard with its delegate, recording the time spent.
+     *
+     * @param shards The shards of the candidate pool.
+     * @param shard The index of the shard to search.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return The best candidates of the given shard.
+     */
+    private Ranking<T> search(Shards<T> shards, int shard, T t, int k) {
+        long start = System.nanoTime();
+        Ranking<T> ranking = shards.matchers.get(shard)
+                .rank(shards.candidates[shard], t, k);
+        nanos[shard].add(System.nanoTime() - start);
+        searches[shard].increment();
+        return ranking;
+    }
+
+    /**
+     * Returns the index of the shard of the given age group and gender.
+     *
+     * @param group The age group, or {@code null} if unrestricted.
+     * @param g The gender, or {@code null} if unrestricted.
+     * @return The index of the shard.
+     */
+    private static int shardOf(AgeGroup group, Gender g) {
+        int a = group == null ? AGE_GROUPS.length : group.ordinal();
+        int s = g == null ? GENDERS.length : g.ordinal();
+        return a * (GENDERS.length + 1) + s;
+    }
+
+    /**
+     * Returns an array holding the index of every shard.
+     *
+     * @return The index of every shard, in ascending order.
+     */
+    private static int[] newIndices() {
+        int[] indices = new int[SHARDS];
+        Arrays.setAll(indices, shard -> shard);
+        return indices;
+    }
+
+    /**
+     * Returns a new array of lists of the given length.
+     *
+     * @param length The length of the array.
+     * @param <E> The type of the list elements.
+     * @return A new array of lists.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> List<E>[] newArray(int length) {
+        return (List<E>[]) new List<?>[length];
+    }
+
+    /**
+     * The size and search statistics of a single shard.
+     */
+    public static final class Statistics {
+
+        /**
+         * The age group of the shard, or {@code null} if it is unrestricted
+         * by age group.
+         */
+        private final AgeGroup ageGroup;
+
+        /**
+         * The gender of the shard, or {@code null} if it is unrestricted by
+         * gender.
+         */
+        private final Gender gender;
+
+        /**
+         * The amount of candidates in the shard.
+         */
+        private final int size;
+
+        /**
+         * The amount of searches of the shard.
+         */
+        private final long searches;
+
+        /**
+         * The nanoseconds spent searching the shard.
+         */
+        private final long nanos;
+
+        /**
+         * Constructs a {@code Statistics} with the given arguments.
+         *
+         * @param ageGroup The age group of the shard.
+         * @param gender The gender of the shard.
+         * @param size The amount of candidates in the shard.
+         * @param searches The amount of searches of the shard.
+         * @param nanos The nanoseconds spent searching the shard.
+         */
+        private Statistics(
+                AgeGroup ageGroup,
+                Gender gender,
+                int size,
+                long searches,
+                long nanos)
+        {
+            this.ageGroup = ageGroup;
+            this.gender = gender;
+            this.size = size;
+            this.searches = searches;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the age group of the shard, or {@code null} if it is
+         * unrestricted by age group.
+         *
+         * @return The age group of the shard.
+         */
+        public AgeGroup ageGroup() {
+            return ageGroup;
+        }
+
+        /**
+         * Returns the gender of the shard, or {@code null} if it is
+         * unrestricted by gender.
+         *
+         * @return The gender of the shard.
+         */
+        public Gender gender() {
+            return gender;
+        }
+
+        /**
+         * Returns the amount of candidates in the shard.
+         *
+         * @return The amount of candidates in the shard.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the amount of searches of the shard.
+         *
+         * @return The amount of searches of the shard.
+         */
+        public long searches() {
+            return searches;
+        }
+
+        /**
+         * Returns the mean nanoseconds spent per search of the shard, or
+         * {@code 0} if it has not been searched.
+         *
+         * @return The mean latency of the shard, in nanoseconds.
+         */
+        public double meanNanos() {
+            return searches == 0 ? 0.0 : (double) nanos / searches;
+        }
+
+        /**
+         * Returns a {@code String} containing the cohort, size, and latency of
+         * the shard.
+         *
+         * @return A {@code String} representation of this object.
+         */
+        @Override
+        public String toString() {
+            return "Shard[" + (ageGroup == null ? "ANY" : ageGroup.name())
+                    + " x " + (gender == null ? "ANY" : gender.name())
+                    + ", size=" + size
+                    + ", searches=" + searches
+                    + ", meanNanos=" + meanNanos()
+                    + "]";
+        }
+
+    }
+
+    /**
+     * The shards of a candidate pool, each with the delegate matcher prepared
+     * over it.
+     *
+     * @param <T> The type of the candidates.
+     */
+    static final class Shards<T extends Comparable<? super T>> {
+
+        /**
+         * The candidates of each shard, by index.
+         */
+        private final List<T>[] candidates;
+
+        /**
+         * The delegate matcher of each shard, by index, or {@code null} if
+         * the shard is empty.
+         */
+        private final List<Matcher<T>> matchers;
+
+        /**
+         * Constructs a {@code Shards} with the given arguments.
+         *
+         * @param candidates The candidates of each shard.
+         * @param matchers The delegate matcher of each shard.
+         */
+        private Shards(List<T>[] candidates, List<Matcher<T>> matchers) {
+            this.candidates = candidates;
+            this.matchers = matchers;
+        }
+
+    }
+
+}
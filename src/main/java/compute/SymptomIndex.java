@@ -0,0 +1,268 @@
+package compute;
+
+import model.Symptom;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An immutable inverted index mapping symptom identification numbers to the
+ * candidates that exhibit them.
+ *
+ * <p> Each candidate is assigned a dense slot when the index is built. For
+ * every symptom, the index stores a posting list holding the slots of the
+ * candidates that have that symptom, in ascending order. A query only touches
+ * the posting lists of its own symptoms, so its cost is proportional to the
+ * number of candidates sharing at least one symptom with it rather than to the
+ * size of the indexed pool.
+ *
+ * @param <T> The type of the indexed candidates.
+ * @author Oliver Abdulrahim
+ */
+public final class SymptomIndex<T>
+    implements SymptomSearch<T>
+{
+
+    /**
+     * Per-thread scratch space used to accumulate overlap counts.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH =
+            ThreadLocal.withInitial(Scratch :: new);
+
+    /**
+     * The indexed candidates, by slot.
+     */
+    private final Object[] candidates;
+
+    /**
+     * The amount of symptoms of each candidate, by slot.
+     */
+    private final int[] sizes;
+
+    /**
+     * Maps symptom identification numbers to ascending arrays of the slots of
+     * the candidates having that symptom.
+     */
+    private final Map<Integer, int[]> postings;
+
+    /**
+     * Constructs a {@code SymptomIndex} over the given candidates.
+     *
+     * @param data The candidates to index.
+     * @param symptoms The function returning the symptoms of a candidate.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public SymptomIndex(
+            Collection<? extends T> data,
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this.candidates = data.toArray();
+        this.sizes = new int[candidates.length];
+
+        // Resolve the symptoms of every candidate once and count the length of
+        // each posting list, so that the lists can be filled without resizing.
+        int[][] ids = new int[candidates.length][];
+        Map<Integer, int[]> lengths = new HashMap<>();
+        for (int slot = 0; slot < candidates.length; slot++) {
+            Collection<Symptom> of = symptoms.apply(candidate(slot));
+            ids[slot] = new int[of.size()];
+            int i = 0;
+            for (Symptom symptom : of) {
+                ids[slot][i++] = symptom.getID();
+                lengths.computeIfAbsent(symptom.getID(), k -> new int[1])[0]++;
+            }
+            sizes[slot] = i;
+        }
+
+        this.postings = new HashMap<>(lengths.size() * 4 / 3 + 1);
+        lengths.forEach((id, length) -> postings.put(id, new int[length[0]]));
+        lengths.values().forEach(length -> length[0] = 0);
+        for (int slot = 0; slot < candidates.length; slot++) {
+            for (int id : ids[slot]) {
+                int[] fill = lengths.get(id);
+                postings.get(id)[fill[0]++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of candidates in this index.
+     *
+     * @return The amount of candidates in this index.
+     */
+    public int size() {
+        return candidates.length;
+    }
+
+    /**
+     * Returns the candidate stored at the given slot.
+     *
+     * @param slot The slot of the candidate.
+     * @return The candidate stored at the given slot.
+     */
+    @SuppressWarnings("unchecked")
+    public T candidate(int slot) {
+        return (T) candidates[slot];
+    }
+
+    /**
+     * Returns the amount of symptoms of the candidate at the given slot.
+     *
+     * @param slot The slot of the candidate.
+     * @return The amount of symptoms of the candidate at the given slot.
+     */
+    public int symptomCount(int slot) {
+        return sizes[slot];
+    }
+
+    /**
+     * Returns the candidate with the greatest Dice similarity to the symptoms
+     * with the given identification numbers, or {@code null} if no candidate
+     * shares any of them.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @return The candidate most similar to the given symptoms, or
+     *         {@code null} if there is no such candidate.
+     */
+    @Override
+    public T best(int[] query) {
+        int size = query.length;
+        int[] best = { -1 };
+        double[] bestScore = { 0.0 };
+        overlaps(query, (slot, overlap) -> {
+            double score = dice(overlap, size, slot);
+            if (score > bestScore[0]) {
+                bestScore[0] = score;
+                best[0] = slot;
+            }
+        });
+        return best[0] < 0 ? null : candidate(best[0]);
+    }
+
+    /**
+     * Returns the {@code k} candidates with the greatest Dice similarity to
+     * the symptoms with the given identification numbers, best first.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates most similar to the given
+     *         symptoms.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    @Override
+    public Ranking<T> rank(int[] query, int k) {
+        int size = query.length;
+        TopK<T> top = new TopK<>(k);
+        overlaps(query, (slot, overlap) -> {
+            double score = dice(overlap, size, slot);
+            if (score > top.threshold()) {
+                top.offer(candidate(slot), score);
+            }
+        });
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the Dice similarity between a query of the given size and the
+     * candidate at the given slot, given the amount of symptoms they share.
+     *
+     * @param overlap The amount of symptoms shared by the query and candidate.
+     * @param querySize The amount of symptoms in the query.
+     * @param slot The slot of the candidate.
+     * @return The Dice similarity, between {@code 0} and {@code 1}.
+     */
+    double dice(int overlap, int querySize, int slot) {
+        return 2.0 * overlap / (querySize + sizes[slot]);
+    }
+
+    /**
+     * Passes every candidate sharing at least one of the given symptoms to the
+     * given consumer, along with the amount of symptoms it shares.
+     *
+     * @param query The distinct identification numbers of the symptoms to look
+     *        up.
+     * @param consumer The consumer to pass each overlapping candidate to.
+     */
+    void overlaps(int[] query, OverlapConsumer consumer) {
+        Scratch scratch = SCRATCH.get().ensure(candidates.length);
+        int[] counts = scratch.counts;
+        int[] touched = scratch.touched;
+        int found = 0;
+        for (int id : query) {
+            int[] posting = postings.get(id);
+            if (posting != null) {
+                for (int slot : posting) {
+                    if (counts[slot]++ == 0) {
+                        touched[found++] = slot;
+                    }
+                }
+            }
+        }
+        try {
+            for (int i = 0; i < found; i++) {
+                int slot = touched[i];
+                consumer.accept(slot, counts[slot]);
+            }
+        }
+        finally {
+            for (int i = 0; i < found; i++) {
+                counts[touched[i]] = 0;
+            }
+        }
+    }
+
+    /**
+     * Accepts a candidate slot and the amount of query symptoms it shares.
+     */
+    @FunctionalInterface
+    interface OverlapConsumer {
+
+        /**
+         * Performs this operation on the given arguments.
+         *
+         * @param slot The slot of the candidate.
+         * @param overlap The amount of query symptoms the candidate shares.
+         */
+        void accept(int slot, int overlap);
+
+    }
+
+    /**
+     * Reusable, zero-filled count buffers sized to the largest index queried
+     * on the owning thread.
+     */
+    private static final class Scratch {
+
+        /**
+         * The overlap count of each slot. Every entry is zero between queries.
+         */
+        private int[] counts = new int[0];
+
+        /**
+         * The slots touched by the current query.
+         */
+        private int[] touched = new int[0];
+
+        /**
+         * Grows the buffers of this object to hold at least the given amount
+         * of slots, returning this object.
+         *
+         * @param capacity The required amount of slots.
+         * @return This object.
+         */
+        private Scratch ensure(int capacity) {
+            if (counts.length < capacity) {
+                counts = new int[capacity];
+                touched = new int[capacity];
+            }
+            return this;
+        }
+
+    }
+
+}
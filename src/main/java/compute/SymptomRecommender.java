@@ -0,0 +1,370 @@
+package compute;
+
+import model.Ailment;
+import model.Patient;
+import model.Symptom;
+import model.SymptomDictionary;
+import util.primitive.Bits;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Recommends which symptom to ask about next, given the symptoms already
+ * known to be present or absent.
+ *
+ * <p> Every ailment is weighted by its prior, reduced by a constant factor for
+ * each known answer that contradicts its symptom set, so that a mistaken
+ * answer demotes an ailment rather than eliminating it. Asking about a symptom
+ * splits the ailments into those with it and those without it; the best
+ * question is the one whose answer is expected to reduce the entropy of the
+ * weighted ailments the most, which is its information gain.
+ *
+ * <p> Once a symptom is known to be present, only the symptoms that have
+ * appeared together with one of the present symptoms in the
+ * {@link CoOccurrence} table are considered, which keeps the questions
+ * plausible follow-ups.
+ *
+ * <p> Ailments are stored as bit set rows over the symptoms, and each symptom
+ * as a bit set row over the ailments, so a recommendation takes time linear in
+ * the amount of ailments for each candidate question and allocates little
+ * beyond its result.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class SymptomRecommender {
+
+    /**
+     * The default factor an ailment's weight is multiplied by for each known
+     * answer that contradicts it.
+     */
+    public static final double DEFAULT_PENALTY = 0.05;
+
+    /**
+     * The natural logarithm of 2, converting nats to bits.
+     */
+    private static final double LN_2 = Math.log(2.0);
+
+    /**
+     * The co-occurrences of the symptoms.
+     */
+    private final CoOccurrence coOccurrence;
+
+    /**
+     * The factor an ailment's weight is multiplied by for each contradiction.
+     */
+    private final double penalty;
+
+    /**
+     * The amount of ailments.
+     */
+    private final int ailments;
+
+    /**
+     * The prior weight of each ailment.
+     */
+    private final double[] priors;
+
+    /**
+     * The symptom bit set of each ailment, stored at
+     * {@code ailment * symptomStride}.
+     */
+    private final long[] symptomBits;
+
+    /**
+     * The amount of words in each symptom bit set row.
+     */
+    private final int symptomStride;
+
+    /**
+     * The ailment bit set of each symptom, stored at
+     * {@code symptom * ailmentStride}.
+     */
+    private final long[] ailmentBits;
+
+    /**
+     * The amount of words in each ailment bit set row.
+     */
+    private final int ailmentStride;
+
+    /**
+     * The symptoms that can be asked about, by dense index.
+     */
+    private final Symptom[] questions;
+
+    /**
+     * Constructs a {@code SymptomRecommender} with the given arguments.
+     *
+     * @param data The candidate ailments.
+     * @param prior The function returning the prior weight of each ailment.
+     * @param coOccurrence The co-occurrences of the symptoms.
+     * @param penalty The factor an ailment's weight is multiplied by for each
+     *        known answer that contradicts it.
+     * @throws NullPointerException if any of the given objects is
+     *         {@code null}.
+     * @throws IllegalArgumentException if the penalty is not in
+     *         {@code (0, 1]}.
+     */
+    public SymptomRecommender(
+            Collection<? extends Ailment> data,
+            ToDoubleFunction<? super Ailment> prior,
+            CoOccurrence coOccurrence,
+            double penalty)
+    {
+        if (!(penalty > 0.0 && penalty <= 1.0)) {
+            throw new IllegalArgumentException("Penalty : " + penalty);
+        }
+        this.coOccurrence = Objects.requireNonNull(coOccurrence);
+        this.penalty = penalty;
+
+        Ailment[] rows = data.toArray(new Ailment[0]);
+        long[][] encoded = new long[rows.length][];
+        int stride = 0;
+        for (int a = 0; a < rows.length; a++) {
+            encoded[a] = rows[a].symptomBits();
+            stride = Math.max(stride, encoded[a].length);
+        }
+        int symptoms = SymptomDictionary.size();
+
+        this.ailments = rows.length;
+        this.priors = new double[ailments];
+        this.symptomStride = stride;
+        this.symptomBits = new long[ailments * stride];
+        this.ailmentStride = Bits.words(ailments);
+        this.ailmentBits = new long[symptoms * ailmentStride];
+        this.questions = new Symptom[symptoms];
+        for (int a = 0; a < ailments; a++) {
+            priors[a] = prior.applyAsDouble(rows[a]);
+            if (!(priors[a] > 0.0)) {
+                throw new IllegalArgumentException("Prior : " + priors[a]);
+            }
+            System.arraycopy(encoded[a], 0, symptomBits, a * stride,
+                    encoded[a].length);
+            for (Symptom symptom : rows[a].getSymptoms()) {
+                int s = SymptomDictionary.find(symptom.getID());
+                questions[s] = symptom;
+                Bits.set(ailmentBits, s * ailmentStride * Long.SIZE + a);
+            }
+        }
+    }
+
+    /**
+     * Returns a {@code SymptomRecommender} over the given ailments, whose
+     * priors are the amount of given patients diagnosed with each, plus one.
+     * Co-occurrences are counted over the symptom sets of both.
+     *
+     * @param ailments The candidate ailments.
+     * @param patients The historical patients.
+     * @return A {@code SymptomRecommender} over the given ailments.
+     */
+    public static SymptomRecommender of(
+            Collection<? extends Ailment> ailments,
+            Collection<? extends Patient> patients)
+    {
+        CoOccurrence coOccurrence = CoOccurrence.of(ailments, patients);
+        Map<Integer, Integer> diagnoses = new HashMap<>();
+        for (Patient patient : patients) {
+            for (Ailment ailment : patient.getAilments()) {
+                diagnoses.merge(ailment.getID(), 1, Integer :: sum);
+            }
+        }
+        return new SymptomRecommender(
+                ailments,
+                a -> 1.0 + diagnoses.getOrDefault(a.getID(), 0),
+                coOccurrence,
+                DEFAULT_PENALTY);
+    }
+
+    /**
+     * Returns the co-occurrences this recommender draws questions from.
+     *
+     * @return The co-occurrences of the symptoms.
+     */
+    public CoOccurrence coOccurrence() {
+        return coOccurrence;
+    }
+
+    /**
+     * Returns the {@code k} symptoms whose answer is expected to tell the
+     * ailments apart best, given the symptoms known to be present.
+     *
+     * @param present The symptoms known to be present.
+     * @param k The maximum amount of symptoms to return.
+     * @return A {@code Ranking} of the best symptoms to ask about, scored by
+     *         their information gain in bits.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Symptom> recommend(Collection<Symptom> present, int k) {
+        return recommend(present, Collections.emptySet(), k);
+    }
+
+    /**
+     * Returns the {@code k} symptoms whose answer is expected to tell the
+     * ailments apart best, given the symptoms known to be present and absent.
+     * Symptoms already known are never returned, nor are symptoms that do not
+     * split the ailments at all.
+     *
+     * @param present The symptoms known to be present.
+     * @param absent The symptoms known to be absent.
+     * @param k The maximum amount of symptoms to return.
+     * @return A {@code Ranking} of the best symptoms to ask about, scored by
+     *         their information gain in bits.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public Ranking<Symptom> recommend(
+            Collection<Symptom> present,
+            Collection<Symptom> absent,
+            int k)
+    {
+        TopK<Symptom> top = new TopK<>(k);
+        int[] yes = known(present);
+        int[] no = known(absent);
+
+        double[] weights = new double[ailments];
+        double[] logs = new double[ailments];
+        double total = 0.0;
+        double totalLog = 0.0;
+        for (int a = 0; a < ailments; a++) {
+            int row = a * symptomStride;
+            int contradictions = 0;
+            for (int s : yes) {
+                if (!contains(row, s)) {
+                    contradictions++;
+                }
+            }
+            for (int s : no) {
+                if (contains(row, s)) {
+                    contradictions++;
+                }
+            }
+            double w = priors[a] * Math.pow(penalty, contradictions);
+            weights[a] = w;
+            logs[a] = w * Math.log(w);
+            total += w;
+            totalLog += logs[a];
+        }
+        if (total == 0.0) {
+            return top.toRanking();
+        }
+        double entropy = entropy(total, totalLog);
+
+        for (int s = 0; s < questions.length; s++) {
+            if (questions[s] == null
+                    || isKnown(s, yes)
+                    || isKnown(s, no)
+                    || !followsUp(s, yes)) {
+                continue;
+            }
+            double with = 0.0;
+            double withLog = 0.0;
+            int row = s * ailmentStride;
+            for (int w = 0; w < ailmentStride; w++) {
+                long word = ailmentBits[row + w];
+                while (word != 0) {
+                    int a = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+                    with += weights[a];
+                    withLog += logs[a];
+                    word &= word - 1;
+                }
+            }
+            double without = total - with;
+            double gain = entropy
+                    - with / total * entropy(with, withLog)
+                    - without / total * entropy(without, totalLog - withLog);
+            if (gain > 1e-12) {
+                top.offer(questions[s], gain / LN_2);
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the entropy, in nats, of weights with the given sum and sum of
+     * {@code w ln w}, or {@code 0} if the sum is not positive.
+     *
+     * @param sum The sum of the weights.
+     * @param sumLog The sum of each weight times its natural logarithm.
+     * @return The entropy of the normalised weights.
+     */
+    private static double entropy(double sum, double sumLog) {
+        return sum <= 0.0 ? 0.0 : Math.max(0.0, Math.log(sum) - sumLog / sum);
+    }
+
+    /**
+     * Returns the dense indices of the given known symptoms, omitting any that
+     * no ailment or document contains.
+     *
+     * @param symptoms The known symptoms.
+     * @return The dense indices of the given symptoms.
+     */
+    private static int[] known(Collection<Symptom> symptoms) {
+        int[] indices = new int[symptoms.size()];
+        int size = 0;
+        for (Symptom symptom : symptoms) {
+            int s = SymptomDictionary.find(symptom.getID());
+            if (s >= 0) {
+                indices[size++] = s;
+            }
+        }
+        return size == indices.length
+                ? indices
+                : Arrays.copyOf(indices, size);
+    }
+
+    /**
+     * Returns {@code true} if the ailment row starting at the given position
+     * contains the symptom with the given dense index.
+     *
+     * @param row The position of the ailment's symptom bit set row.
+     * @param s The dense index of the symptom.
+     * @return {@code true} if the ailment has the symptom.
+     */
+    private boolean contains(int row, int s) {
+        int word = s >>> 6;
+        return word < symptomStride
+                && (symptomBits[row + word] & (1L << s)) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the given dense index is among the given ones.
+     *
+     * @param s The dense index to find.
+     * @param known The dense indices to search.
+     * @return {@code true} if {@code s} is among {@code known}.
+     */
+    private static boolean isKnown(int s, int[] known) {
+        for (int index : known) {
+            if (index == s) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if no symptom is known to be present, or if the
+     * symptom with the given dense index has appeared together with one that
+     * is.
+     *
+     * @param s The dense index of the candidate question.
+     * @param present The dense indices of the symptoms known to be present.
+     * @return {@code true} if the symptom is a plausible follow-up.
+     */
+    private boolean followsUp(int s, int[] present) {
+        if (present.length == 0) {
+            return true;
+        }
+        for (int p : present) {
+            if (coOccurrence.count(p, s) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
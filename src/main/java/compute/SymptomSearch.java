@@ -0,0 +1,89 @@
+package compute;
+
+import model.Symptom;
+
+import java.util.Collection;
+
+/**
+ * Represents a structure that finds the candidates most similar to a set of
+ * symptoms, where similarity is the Dice coefficient
+ * {@code 2|A ∩ B| / (|A| + |B|)} of the two symptom sets.
+ *
+ * <p> Symptoms are identified by their identification numbers, given as an
+ * ascending array without duplicates. Such an array can be obtained through
+ * {@link #ids(Collection)}. Candidates sharing no symptom with the query are
+ * never returned.
+ *
+ * @param <T> The type of the candidates.
+ * @see SymptomIndex
+ * @author Oliver Abdulrahim
+ */
+public interface SymptomSearch<T> {
+
+    /**
+     * Returns the candidate most similar to the symptoms with the given
+     * identification numbers, or {@code null} if no candidate shares any of
+     * them.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @return The candidate most similar to the given symptoms, or
+     *         {@code null} if there is no such candidate.
+     */
+    T best(int[] query);
+
+    /**
+     * Returns the {@code k} candidates most similar to the symptoms with the
+     * given identification numbers, best first.
+     *
+     * @param query The distinct identification numbers of the symptoms to
+     *        match, in ascending order.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates most similar to the given
+     *         symptoms.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    Ranking<T> rank(int[] query, int k);
+
+    /**
+     * Returns the candidate most similar to the given symptoms, or
+     * {@code null} if no candidate shares any of them.
+     *
+     * @param query The symptoms to match.
+     * @return The candidate most similar to the given symptoms, or
+     *         {@code null} if there is no such candidate.
+     */
+    default T best(Collection<Symptom> query) {
+        return best(ids(query));
+    }
+
+    /**
+     * Returns the {@code k} candidates most similar to the given symptoms,
+     * best first.
+     *
+     * @param query The symptoms to match.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates most similar to the given
+     *         symptoms.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    default Ranking<T> rank(Collection<Symptom> query, int k) {
+        return rank(ids(query), k);
+    }
+
+    /**
+     * Returns an ascending array of the distinct identification numbers of the
+     * given symptoms.
+     *
+     * @param symptoms The symptoms whose identification numbers to return.
+     * @return The distinct identification numbers of the given symptoms.
+     */
+    static int[] ids(Collection<Symptom> symptoms) {
+        return symptoms.stream()
+                .mapToInt(Symptom :: getID)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+}
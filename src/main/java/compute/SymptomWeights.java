@@ -0,0 +1,115 @@
+package compute;
+
+import model.Symptom;
+import model.SymptomDictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * An immutable table of symptom weights, indexed by the dense index each
+ * symptom is assigned in the {@link SymptomDictionary}.
+ *
+ * <p> Weights are inverse document frequencies: a symptom present in few of
+ * the documents the table was built from weighs more than one present in most
+ * of them, so that rare, discriminating symptoms dominate common ones.
+ * Symptoms absent from every document receive the greatest weight.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class SymptomWeights {
+
+    /**
+     * The weight of each symptom, by dense index.
+     */
+    private final double[] weights;
+
+    /**
+     * The weight of symptoms not present in any document.
+     */
+    private final double unseen;
+
+    /**
+     * Constructs a {@code SymptomWeights} with the given arguments.
+     *
+     * @param weights The weight of each symptom, by dense index.
+     * @param unseen The weight of symptoms not present in any document.
+     */
+    private SymptomWeights(double[] weights, double unseen) {
+        this.weights = weights;
+        this.unseen = unseen;
+    }
+
+    /**
+     * Returns a {@code SymptomWeights} assigning each symptom its smoothed
+     * inverse document frequency {@code 1 + ln((1 + N) / (1 + df))} over the
+     * given documents, where {@code N} is the amount of documents and
+     * {@code df} the amount of documents containing the symptom.
+     *
+     * <p> Documents are typically the symptom sets of every ailment, of every
+     * patient, or of both.
+     *
+     * @param documents The symptom sets to compute frequencies over.
+     * @return The inverse document frequencies of the symptoms in the given
+     *         documents.
+     */
+    public static SymptomWeights inverseFrequency(
+            Stream<? extends Collection<Symptom>> documents)
+    {
+        int[] frequencies = new int[Math.max(16, SymptomDictionary.size())];
+        long count = 0;
+        Iterator<? extends Collection<Symptom>> it = documents.iterator();
+        while (it.hasNext()) {
+            for (int index : SymptomDictionary.indices(it.next())) {
+                if (index >= frequencies.length) {
+                    frequencies = Arrays.copyOf(
+                            frequencies,
+                            Math.max(index + 1, frequencies.length * 2));
+                }
+                frequencies[index]++;
+            }
+            count++;
+        }
+
+        double[] weights = new double[SymptomDictionary.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = idf(count, i < frequencies.length ? frequencies[i] : 0);
+        }
+        return new SymptomWeights(weights, idf(count, 0));
+    }
+
+    /**
+     * Returns the smoothed inverse document frequency of a symptom present in
+     * the given amount of documents.
+     *
+     * @param documents The total amount of documents.
+     * @param frequency The amount of documents containing the symptom.
+     * @return The inverse document frequency of the symptom.
+     */
+    private static double idf(long documents, int frequency) {
+        return 1.0 + Math.log((1.0 + documents) / (1.0 + frequency));
+    }
+
+    /**
+     * Returns the weight of the symptom with the given dense index.
+     *
+     * @param index The dense index of the symptom.
+     * @return The weight of the symptom with the given dense index.
+     */
+    public double weight(int index) {
+        return index >= 0 && index < weights.length ? weights[index] : unseen;
+    }
+
+    /**
+     * Returns the weight of the given symptom.
+     *
+     * @param symptom The symptom whose weight to return.
+     * @return The weight of the given symptom.
+     */
+    public double weight(Symptom symptom) {
+        return weight(SymptomDictionary.find(symptom.getID()));
+    }
+
+}
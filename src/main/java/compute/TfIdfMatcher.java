@@ -0,0 +1,264 @@
+package compute;
+
+import model.Symptom;
+import model.SymptomDictionary;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An implementation of the {@link Matcher} interface that scores candidates
+ * by the cosine similarity of their TF-IDF weighted symptom vectors.
+ *
+ * <p> Every symptom is weighted by its {@link SymptomWeights inverse document
+ * frequency}, so that a shared rare symptom counts for more than a shared
+ * common one. When the candidate pool is indexed, each candidate's vector is
+ * normalized and stored in flat primitive arrays. A query then expands its own
+ * weights into a dense scratch array once, and scores each candidate with a
+ * single sparse dot product over the candidate's symptoms.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class TfIdfMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, TfIdfMatcher.Vectors>
+{
+
+    /**
+     * Per-thread, zero-filled scratch space holding the weights of a query by
+     * dense symptom index.
+     */
+    private static final ThreadLocal<double[][]> SCRATCH =
+            ThreadLocal.withInitial(() -> new double[1][0]);
+
+    /**
+     * The function returning the symptoms of an object.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The symptom weights, or {@code null} if they are computed from each
+     * candidate pool.
+     */
+    private final SymptomWeights weights;
+
+    /**
+     * Constructs a {@code TfIdfMatcher} that computes symptom weights from the
+     * symptoms of each candidate pool it indexes.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @throws NullPointerException if the given argument is {@code null}.
+     */
+    public TfIdfMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.weights = null;
+    }
+
+    /**
+     * Constructs a {@code TfIdfMatcher} that uses the given, precomputed
+     * symptom weights.
+     *
+     * @param symptoms The function returning the symptoms of an object.
+     * @param weights The symptom weights.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public TfIdfMatcher(
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            SymptomWeights weights)
+    {
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.weights = Objects.requireNonNull(weights);
+    }
+
+    /**
+     * Builds the normalized, weighted symptom vectors of every candidate in
+     * the given pool.
+     *
+     * @param data The candidate pool to index.
+     * @return The vectors of the given candidate pool.
+     */
+    @Override
+    protected Vectors buildIndex(Collection<? extends T> data) {
+        SymptomWeights w = weights != null
+                ? weights
+                : SymptomWeights.inverseFrequency(
+                        data.stream().map(symptoms));
+
+        Object[] candidates = data.toArray();
+        int[][] indices = new int[candidates.length][];
+        int total = 0;
+        for (int slot = 0; slot < candidates.length; slot++) {
+            @SuppressWarnings("unchecked")
+            T candidate = (T) candidates[slot];
+            indices[slot] = SymptomDictionary.indices(symptoms.apply(candidate));
+            total += indices[slot].length;
+        }
+
+        int[] offsets = new int[candidates.length + 1];
+        int[] terms = new int[total];
+        double[] values = new double[total];
+        for (int slot = 0, j = 0; slot < candidates.length; slot++) {
+            offsets[slot] = j;
+            double norm = 0.0;
+            for (int index : indices[slot]) {
+                double weight = w.weight(index);
+                terms[j] = index;
+                values[j++] = weight;
+                norm += weight * weight;
+            }
+            norm = Math.sqrt(norm);
+            for (int i = offsets[slot]; i < j; i++) {
+                values[i] /= norm;
+            }
+            offsets[slot + 1] = j;
+        }
+        return new Vectors(candidates, offsets, terms, values, w);
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} whose weighted
+     * symptom vector has the greatest cosine similarity to the given one's.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} whose
+     * weighted symptom vectors have the greatest cosine similarity to the
+     * given one's.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        Vectors vectors = index(data);
+        int[] query = SymptomDictionary.indices(symptoms.apply(t));
+        double[] q = scratch(query);
+
+        double norm = 0.0;
+        for (int index : query) {
+            double weight = vectors.weights.weight(index);
+            q[index] = weight;
+            norm += weight * weight;
+        }
+        norm = norm == 0.0 ? 1.0 : Math.sqrt(norm);
+
+        TopK<T> top = new TopK<>(k);
+        try {
+            int[] offsets = vectors.offsets;
+            int[] terms = vectors.terms;
+            double[] values = vectors.values;
+            for (int slot = 0; slot < vectors.candidates.length; slot++) {
+                double dot = 0.0;
+                for (int j = offsets[slot]; j < offsets[slot + 1]; j++) {
+                    dot += values[j] * q[terms[j]];
+                }
+                double score = dot / norm;
+                if (score > top.threshold()) {
+                    top.offer((T) vectors.candidates[slot], score);
+                }
+            }
+        }
+        finally {
+            for (int index : query) {
+                q[index] = 0.0;
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Returns the zero-filled scratch array of the current thread, grown to
+     * hold every given dense index and every symptom in the dictionary.
+     *
+     * @param query The dense indices that will be written.
+     * @return The scratch array of the current thread.
+     */
+    private static double[] scratch(int[] query) {
+        double[][] holder = SCRATCH.get();
+        int needed = SymptomDictionary.size();
+        if (query.length > 0) {
+            needed = Math.max(needed, query[query.length - 1] + 1);
+        }
+        if (holder[0].length < needed) {
+            holder[0] = new double[Math.max(needed, holder[0].length * 2)];
+        }
+        return holder[0];
+    }
+
+    /**
+     * The normalized, weighted symptom vectors of a candidate pool, stored in
+     * compressed sparse row form.
+     */
+    static final class Vectors {
+
+        /**
+         * The candidates, by slot.
+         */
+        private final Object[] candidates;
+
+        /**
+         * The start of each candidate's entries in {@link #terms} and
+         * {@link #values}, by slot, followed by the total amount of entries.
+         */
+        private final int[] offsets;
+
+        /**
+         * The dense symptom index of each entry.
+         */
+        private final int[] terms;
+
+        /**
+         * The normalized weight of each entry.
+         */
+        private final double[] values;
+
+        /**
+         * The symptom weights the vectors were built with.
+         */
+        private final SymptomWeights weights;
+
+        /**
+         * Constructs a {@code Vectors} with the given arguments.
+         *
+         * @param candidates The candidates, by slot.
+         * @param offsets The start of each candidate's entries.
+         * @param terms The dense symptom index of each entry.
+         * @param values The normalized weight of each entry.
+         * @param weights The symptom weights the vectors were built with.
+         */
+        private Vectors(
+                Object[] candidates,
+                int[] offsets,
+                int[] terms,
+                double[] values,
+                SymptomWeights weights)
+        {
+            this.candidates = candidates;
+            this.offsets = offsets;
+            this.terms = terms;
+            this.values = values;
+            this.weights = weights;
+        }
+
+    }
+
+}
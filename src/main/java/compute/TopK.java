@@ -0,0 +1,210 @@
+package compute;
+
+import java.util.Arrays;
+
+/**
+ * A bounded collection retaining the {@code k} highest-scoring objects offered
+ * to it.
+ *
+ * <p> Objects are kept in a binary min-heap ordered by score, so the weakest
+ * retained object is always at the root and can be replaced in logarithmic
+ * time. Scores are stored in a primitive array that is allocated once, so
+ * offering an object allocates nothing.
+ *
+ * @param <T> The type of the retained objects.
+ * @implSpec This class is mutable, and therefore not thread-safe!
+ * @author Oliver Abdulrahim
+ */
+public final class TopK<T> {
+
+    /**
+     * The retained objects, arranged as a heap parallel to {@link #scores}.
+     */
+    private final Object[] items;
+
+    /**
+     * The scores of the retained objects, arranged as a min-heap.
+     */
+    private final double[] scores;
+
+    /**
+     * The amount of objects currently retained.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty {@code TopK} retaining at most the given amount of
+     * objects.
+     *
+     * @param k The maximum amount of objects to retain.
+     * @throws IllegalArgumentException if the given argument is negative.
+     */
+    public TopK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative bound : " + k);
+        }
+        this.items = new Object[k];
+        this.scores = new double[k];
+    }
+
+    /**
+     * Returns the maximum amount of objects retained by this {@code TopK}.
+     *
+     * @return The maximum amount of objects retained.
+     */
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Returns the amount of objects currently retained by this {@code TopK}.
+     *
+     * @return The amount of objects currently retained.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if this {@code TopK} retains as many objects as it
+     * can, {@code false} otherwise.
+     *
+     * @return {@code true} if this object is full, {@code false} otherwise.
+     */
+    public boolean isFull() {
+        return size == items.length;
+    }
+
+    /**
+     * Returns the score an object must exceed to be retained by this
+     * {@code TopK}. This is negative infinity while the object is not full.
+     *
+     * @return The score an object must exceed to be retained.
+     */
+    public double threshold() {
+        if (!isFull()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return size == 0 ? Double.POSITIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * Offers the given object with the given score, returning {@code true} if
+     * it was retained, {@code false} otherwise.
+     *
+     * @param item The object to offer.
+     * @param score The score of the object. Greater scores are better.
+     * @return {@code true} if the given object was retained, {@code false}
+     *         otherwise.
+     */
+    public boolean offer(T item, double score) {
+        if (size < items.length) {
+            items[size] = item;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (size == 0 || !(score > scores[0])) {
+            return false;
+        }
+        items[0] = item;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Offers every object retained by the given {@code TopK} to this one.
+     *
+     * @param other The {@code TopK} whose objects to offer.
+     */
+    @SuppressWarnings("unchecked")
+    public void merge(TopK<? extends T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer((T) other.items[i], other.scores[i]);
+        }
+    }
+
+    /**
+     * Removes every object retained by this {@code TopK}.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns a {@code Ranking} of the objects retained by this {@code TopK},
+     * best first. This object is left unchanged.
+     *
+     * @return A {@code Ranking} of the retained objects.
+     */
+    public Ranking<T> toRanking() {
+        TopK<T> copy = new TopK<>(size);
+        System.arraycopy(items, 0, copy.items, 0, size);
+        System.arraycopy(scores, 0, copy.scores, 0, size);
+        copy.size = size;
+
+        // Repeatedly moving the minimum to the end of the heap leaves both
+        // arrays sorted in descending order of score.
+        while (copy.size > 1) {
+            copy.swap(0, --copy.size);
+            copy.siftDown(0);
+        }
+        return new Ranking<>(copy.items, copy.scores);
+    }
+
+    /**
+     * Moves the element at the given heap position towards the root until the
+     * heap property is restored.
+     *
+     * @param i The position of the element to move.
+     */
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(scores[i] < scores[parent])) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * Moves the element at the given heap position towards the leaves until
+     * the heap property is restored.
+     *
+     * @param i The position of the element to move.
+     */
+    private void siftDown(int i) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (!(scores[child] < scores[i])) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Swaps the elements at the given heap positions.
+     *
+     * @param i The position of the first element.
+     * @param j The position of the second element.
+     */
+    private void swap(int i, int j) {
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+}
@@ -0,0 +1,313 @@
+package compute;
+
+import model.AgeGroup;
+import model.Ailment;
+import model.Gender;
+import model.Patient;
+import model.Symptom;
+import model.SymptomDictionary;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An implementation of the {@link Matcher} interface that compares objects as
+ * dense feature vectors under a given {@link Distance}.
+ *
+ * <p> Each object is encoded as a {@code float} vector holding one indicator
+ * per symptom in the {@link SymptomDictionary}, followed by a one-hot encoding
+ * of its {@link AgeGroup} and one of its {@link Gender}, if the matcher was
+ * given functions returning them. When the candidate pool is indexed, every
+ * candidate's vector is stored as a row of a single flat, row-major matrix,
+ * and a query is scored against each row in a tight loop over primitive
+ * arrays.
+ *
+ * <p> The amount of symptom indicators is fixed when the pool is indexed.
+ * Query symptoms added to the dictionary afterwards are absent from every
+ * candidate, and so are dropped without changing the order of the candidates.
+ *
+ * @param <T> The type of the input to the function, lower bounded by
+ *        {@code Comparable}.
+ * @author Oliver Abdulrahim
+ */
+public class VectorMatcher<T extends Comparable<? super T>>
+    extends AbstractIndexedMatcher<T, VectorMatcher.Matrix>
+{
+
+    /**
+     * The age groups, in encoding order.
+     */
+    private static final AgeGroup[] AGE_GROUPS = AgeGroup.values();
+
+    /**
+     * The genders, in encoding order.
+     */
+    private static final Gender[] GENDERS = Gender.values();
+
+    /**
+     * The distance function comparing feature vectors.
+     */
+    private final Distance distance;
+
+    /**
+     * The function returning the symptoms of an object.
+     */
+    private final Function<? super T, ? extends Collection<Symptom>> symptoms;
+
+    /**
+     * The function returning the age group of an object, or {@code null} if
+     * age groups are not encoded.
+     */
+    private final Function<? super T, AgeGroup> ageGroup;
+
+    /**
+     * The function returning the gender of an object, or {@code null} if
+     * genders are not encoded.
+     */
+    private final Function<? super T, Gender> gender;
+
+    /**
+     * Constructs a {@code VectorMatcher} that encodes only the symptoms of
+     * each object.
+     *
+     * @param distance The distance function comparing feature vectors.
+     * @param symptoms The function returning the symptoms of an object.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public VectorMatcher(
+            Distance distance,
+            Function<? super T, ? extends Collection<Symptom>> symptoms)
+    {
+        this.distance = Objects.requireNonNull(distance);
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.ageGroup = null;
+        this.gender = null;
+    }
+
+    /**
+     * Constructs a {@code VectorMatcher} that encodes the symptoms, age group
+     * and gender of each object. Objects without an age group or gender
+     * encode neither.
+     *
+     * @param distance The distance function comparing feature vectors.
+     * @param symptoms The function returning the symptoms of an object.
+     * @param ageGroup The function returning the age group of an object.
+     * @param gender The function returning the gender of an object.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public VectorMatcher(
+            Distance distance,
+            Function<? super T, ? extends Collection<Symptom>> symptoms,
+            Function<? super T, AgeGroup> ageGroup,
+            Function<? super T, Gender> gender)
+    {
+        this.distance = Objects.requireNonNull(distance);
+        this.symptoms = Objects.requireNonNull(symptoms);
+        this.ageGroup = Objects.requireNonNull(ageGroup);
+        this.gender = Objects.requireNonNull(gender);
+    }
+
+    /**
+     * Returns a {@code VectorMatcher} comparing ailments by their symptoms.
+     *
+     * @param distance The distance function comparing feature vectors.
+     * @return A {@code VectorMatcher} for ailments.
+     */
+    public static VectorMatcher<Ailment> ailments(Distance distance) {
+        return new VectorMatcher<>(distance, Ailment :: getSymptoms);
+    }
+
+    /**
+     * Returns a {@code VectorMatcher} comparing patients by their symptoms,
+     * age group and gender.
+     *
+     * @param distance The distance function comparing feature vectors.
+     * @return A {@code VectorMatcher} for patients.
+     */
+    public static VectorMatcher<Patient> patients(Distance distance) {
+        return new VectorMatcher<>(
+                distance,
+                Patient :: getSymptoms,
+                Patient :: getAgeGroup,
+                Patient :: getGender);
+    }
+
+    /**
+     * Returns the distance function comparing feature vectors.
+     *
+     * @return The distance function of this matcher.
+     */
+    public Distance distance() {
+        return distance;
+    }
+
+    /**
+     * Encodes every candidate in the given pool as a row of a flat matrix.
+     *
+     * @param data The candidate pool to index.
+     * @return The feature matrix of the given candidate pool.
+     */
+    @Override
+    protected Matrix buildIndex(Collection<? extends T> data) {
+        Object[] candidates = data.toArray();
+        int[][] indices = new int[candidates.length][];
+        for (int slot = 0; slot < candidates.length; slot++) {
+            @SuppressWarnings("unchecked")
+            T candidate = (T) candidates[slot];
+            indices[slot] =
+                    SymptomDictionary.indices(symptoms.apply(candidate));
+        }
+
+        // Every candidate symptom is in the dictionary by now.
+        int width = SymptomDictionary.size();
+        int dimensions = width
+                + (ageGroup != null ? AGE_GROUPS.length : 0)
+                + (gender != null ? GENDERS.length : 0);
+        float[] rows = new float[candidates.length * dimensions];
+        for (int slot = 0; slot < candidates.length; slot++) {
+            @SuppressWarnings("unchecked")
+            T candidate = (T) candidates[slot];
+            encode(candidate, indices[slot], rows, slot * dimensions, width);
+        }
+        return new Matrix(candidates, rows, dimensions, width);
+    }
+
+    /**
+     * Selects the object in the given {@code Collection} whose feature vector
+     * is nearest to the given one's.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @return An object from the given collection that is closest to the given
+     *         one, or {@code null} if the collection is empty.
+     */
+    @Override
+    public T compute(Collection<? extends T> data, T t) {
+        return rank(data, t, 1).best().orElse(null);
+    }
+
+    /**
+     * Returns the {@code k} objects in the given {@code Collection} whose
+     * feature vectors are nearest to the given one's, scored by their negated
+     * distance.
+     *
+     * @param data The candidate pool to be tested for similarity against
+     *        {@code t}.
+     * @param t The base object to test.
+     * @param k The maximum amount of candidates to return.
+     * @return A {@code Ranking} of the candidates closest to the given object.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Ranking<T> rank(Collection<? extends T> data, T t, int k) {
+        Matrix matrix = index(data);
+        float[] query = new float[matrix.dimensions];
+        int[] indices = SymptomDictionary.indices(symptoms.apply(t));
+        encode(t, indices, query, 0, matrix.width);
+
+        TopK<T> top = new TopK<>(k);
+        float[] rows = matrix.rows;
+        for (int slot = 0, offset = 0; slot < matrix.candidates.length;
+                slot++, offset += matrix.dimensions) {
+            double score = -distance.between(rows, offset, query);
+            if (score > top.threshold()) {
+                top.offer((T) matrix.candidates[slot], score);
+            }
+        }
+        return top.toRanking();
+    }
+
+    /**
+     * Writes the feature vector of the given object into the given array.
+     * Symptoms whose dense index is not less than the given width are
+     * dropped.
+     *
+     * @param t The object to encode.
+     * @param indices The sorted dense indices of the symptoms of the object.
+     * @param into The array to write to.
+     * @param offset The index of the first element of the vector.
+     * @param width The amount of symptom indicators.
+     */
+    private void encode(
+            T t,
+            int[] indices,
+            float[] into,
+            int offset,
+            int width)
+    {
+        for (int index : indices) {
+            if (index >= width) {
+                break;
+            }
+            into[offset + index] = 1.0f;
+        }
+        int next = offset + width;
+        if (ageGroup != null) {
+            AgeGroup group = ageGroup.apply(t);
+            if (group != null) {
+                into[next + group.ordinal()] = 1.0f;
+            }
+            next += AGE_GROUPS.length;
+        }
+        if (gender != null) {
+            Gender g = gender.apply(t);
+            if (g != null) {
+                into[next + g.ordinal()] = 1.0f;
+            }
+        }
+    }
+
+    /**
+     * The feature vectors of a candidate pool, stored as the rows of a flat,
+     * row-major matrix.
+     */
+    static final class Matrix {
+
+        /**
+         * The candidates, by row.
+         */
+        private final Object[] candidates;
+
+        /**
+         * The feature vector of each candidate, stored at
+         * {@code slot * dimensions}.
+         */
+        private final float[] rows;
+
+        /**
+         * The length of each feature vector.
+         */
+        private final int dimensions;
+
+        /**
+         * The amount of symptom indicators at the start of each vector.
+         */
+        private final int width;
+
+        /**
+         * Constructs a {@code Matrix} with the given arguments.
+         *
+         * @param candidates The candidates, by row.
+         * @param rows The feature vector of each candidate.
+         * @param dimensions The length of each feature vector.
+         * @param width The amount of symptom indicators in each vector.
+         */
+        private Matrix(
+                Object[] candidates,
+                float[] rows,
+                int dimensions,
+                int width)
+        {
+            this.candidates = candidates;
+            this.rows = rows;
+            this.dimensions = dimensions;
+            this.width = width;
+        }
+
+    }
+
+}
@@ -1,7 +1,8 @@
 package model;
 
 import sql.SQLObject;
-import util.stream.Streams;
+import util.primitive.Bits;
+import util.primitive.IntSets;
 
 import java.util.HashSet;
 import java.util.Objects;
@@ -29,6 +30,21 @@ public final class Ailment
      */
     private Set<Symptom> symptoms;
 
+    /**
+     * Caches the bit set encoding of {@link #symptoms}, or {@code null} if it
+     * must be recomputed. Cleared whenever this object is mutated. Volatile, as
+     * the cache may be filled and read by different threads.
+     */
+    private transient volatile long[] symptomBits;
+
+    /**
+     * Caches the sorted identification numbers of {@link #symptoms}, or
+     * {@code null} if they must be recomputed. Cleared whenever this object is
+     * mutated. Volatile, as the cache may be filled and read by different
+     * threads.
+     */
+    private transient volatile int[] symptomIds;
+
     /**
      * Constructs a {@code Patient} using the given arguments.
      *
@@ -77,6 +93,52 @@ public final class Ailment
         return symptoms.add(symptom);
     }
 
+    /**
+     * Returns a bit set encoding the symptoms of this object against the
+     * {@link SymptomDictionary}. The encoding is computed once and cached until
+     * this object is next mutated.
+     *
+     * @return A bit set encoding the symptoms of this object.
+     * @implNote The returned array is shared, and must not be modified.
+     */
+    public long[] symptomBits() {
+        long[] bits = symptomBits;
+        if (bits == null) {
+            bits = SymptomDictionary.encode(symptoms);
+            symptomBits = bits;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the identification numbers of the symptoms of this object, in
+     * ascending order, as a set for use with {@link IntSets}. The array is
+     * computed once and cached until this object is next mutated.
+     *
+     * @return The sorted identification numbers of the symptoms of this
+     *         object.
+     * @implNote The returned array is shared, and must not be modified.
+     */
+    public int[] symptomIds() {
+        int[] ids = symptomIds;
+        if (ids == null) {
+            ids = SQLObject.ids(symptoms);
+            symptomIds = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Handles updating of the last updated date for this object, and discards
+     * its cached symptom encodings.
+     */
+    @Override
+    protected void mutated() {
+        super.mutated();
+        symptomBits = null;
+        symptomIds = null;
+    }
+
     /**
      * Compares the given {@code Ailment} to this one for order, returning a
      * negative number, zero, or a positive number if this object is less than,
@@ -89,7 +151,8 @@ public final class Ailment
      */
     @Override
     public int compareTo(Ailment other) {
-        return (int) Streams.compare(this.getSymptoms(), other.getSymptoms());
+        long[] bits = this.symptomBits();
+        return Bits.cardinality(bits) + Bits.overlap(bits, other.symptomBits());
     }
 
 }
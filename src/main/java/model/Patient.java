@@ -1,7 +1,8 @@
 package model;
 
 import sql.SQLObject;
-import util.stream.Streams;
+import util.primitive.Bits;
+import util.primitive.IntSets;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -50,6 +51,29 @@ public class Patient
      */
     private Set<Symptom> symptoms;
 
+    /**
+     * Caches the bit set encoding of {@link #symptoms}, or {@code null} if it
+     * must be recomputed. Cleared whenever this object is mutated. Volatile, as
+     * the cache may be filled and read by different threads.
+     */
+    private transient volatile long[] symptomBits;
+
+    /**
+     * Caches the sorted identification numbers of {@link #symptoms}, or
+     * {@code null} if they must be recomputed. Cleared whenever this object is
+     * mutated. Volatile, as the cache may be filled and read by different
+     * threads.
+     */
+    private transient volatile int[] symptomIds;
+
+    /**
+     * Caches the sorted identification numbers of {@link #ailments}, or
+     * {@code null} if they must be recomputed. Cleared whenever this object is
+     * mutated. Volatile, as the cache may be filled and read by different
+     * threads.
+     */
+    private transient volatile int[] ailmentIds;
+
     /**
      * Constructs a {@code Patient} that is an exact copy of the given one.
      *
@@ -77,6 +101,7 @@ public class Patient
         setBirthDate(birthDate);
         setAgeGroup(AgeGroup.asAgeGroup(birthDate).orElse(AgeGroup.ADULT));
         this.ailments = new HashSet<>();
+        this.symptoms = new HashSet<>();
     }
 
     /**
@@ -137,7 +162,7 @@ public class Patient
      * @throws NullPointerException if the given argument is {@code null}.
      */
     public void setGender(Gender gender) {
-        Objects.requireNonNull(birthDate);
+        Objects.requireNonNull(gender);
         mutated();
         this.gender = gender;
     }
@@ -208,6 +233,71 @@ public class Patient
         return symptoms.contains(symptom);
     }
 
+    /**
+     * Returns a bit set encoding the symptoms of this object against the
+     * {@link SymptomDictionary}. The encoding is computed once and cached until
+     * this object is next mutated.
+     *
+     * @return A bit set encoding the symptoms of this object.
+     * @implNote The returned array is shared, and must not be modified.
+     */
+    public long[] symptomBits() {
+        long[] bits = symptomBits;
+        if (bits == null) {
+            bits = SymptomDictionary.encode(symptoms);
+            symptomBits = bits;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the identification numbers of the symptoms of this object, in
+     * ascending order, as a set for use with {@link IntSets}. The array is
+     * computed once and cached until this object is next mutated.
+     *
+     * @return The sorted identification numbers of the symptoms of this
+     *         object.
+     * @implNote The returned array is shared, and must not be modified.
+     */
+    public int[] symptomIds() {
+        int[] ids = symptomIds;
+        if (ids == null) {
+            ids = SQLObject.ids(symptoms);
+            symptomIds = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the identification numbers of the ailments of this object, in
+     * ascending order, as a set for use with {@link IntSets}. The array is
+     * computed once and cached until this object is next mutated.
+     *
+     * @return The sorted identification numbers of the ailments of this
+     *         object.
+     * @implNote The returned array is shared, and must not be modified.
+     */
+    public int[] ailmentIds() {
+        int[] ids = ailmentIds;
+        if (ids == null) {
+            ids = SQLObject.ids(ailments);
+            ailmentIds = ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Handles updating of the last updated date for this object, and discards
+     * its cached symptom and ailment encodings.
+     */
+    @Override
+    protected void mutated() {
+        super.mutated();
+        symptomBits = null;
+        symptomIds = null;
+        ailmentIds = null;
+    }
+
     /**
      * Compares the given {@code Patient} to this one for order, returning a
      * negative number, zero, or a positive number if this object is less than,
@@ -220,11 +310,23 @@ public class Patient
      */
     @Override
     public int compareTo(Patient other) {
-        return (int) (this.getName().compareTo(other.getName())
+        return this.getName().compareTo(other.getName())
                 + this.ageGroup.compareTo(other.ageGroup)
                 + this.birthDate.compareTo(other.birthDate)
                 + this.gender.compareTo(other.gender)
-                + 2 * Streams.compare(this.symptoms, other.symptoms));
+                + 2 * symptomOrder(this.symptomBits(), other.symptomBits());
+    }
+
+    /**
+     * Returns the symptom component of {@link #compareTo(Patient)}: the amount
+     * of symptoms in {@code a} plus the amount shared with {@code b}.
+     *
+     * @param a The symptoms of this object, encoded as a bit set.
+     * @param b The symptoms of the other object, encoded as a bit set.
+     * @return The symptom component of the comparison.
+     */
+    private static int symptomOrder(long[] a, long[] b) {
+        return Bits.cardinality(a) + Bits.overlap(a, b);
     }
 
 }
@@ -0,0 +1,119 @@
+package model;
+
+import util.primitive.Bits;
+import util.primitive.IntDictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The {@code SymptomDictionary} class assigns every {@link Symptom} a dense
+ * index, allowing sets of symptoms to be encoded as compact bit sets and
+ * primitive arrays.
+ *
+ * <p> Indices are assigned in order of first appearance and never change, so
+ * encodings produced earlier remain valid after new symptoms are added.
+ *
+ * @see Bits
+ * @author Oliver Abdulrahim
+ */
+public final class SymptomDictionary {
+
+    /**
+     * Maps symptom identification numbers to dense indices.
+     */
+    private static final IntDictionary INDICES = new IntDictionary();
+
+    /**
+     * Returns the dense index of the given {@code Symptom}, assigning one if
+     * it has not been seen before.
+     *
+     * @param symptom The symptom whose index to return.
+     * @return The dense index of the given symptom.
+     */
+    public static int indexOf(Symptom symptom) {
+        return INDICES.indexOf(symptom.getID());
+    }
+
+    /**
+     * Returns the dense index of the symptom with the given identification
+     * number, or {@code -1} if no such symptom has been seen.
+     *
+     * @param id The identification number of the symptom.
+     * @return The dense index of the symptom, or {@code -1}.
+     */
+    public static int find(int id) {
+        return INDICES.find(id);
+    }
+
+    /**
+     * Returns the identification number of the symptom assigned the given
+     * dense index.
+     *
+     * @param index The dense index of the symptom.
+     * @return The identification number of the symptom.
+     * @throws IndexOutOfBoundsException if the given index is not assigned.
+     */
+    public static int idAt(int index) {
+        return INDICES.keyAt(index);
+    }
+
+    /**
+     * Returns the amount of symptoms assigned an index so far.
+     *
+     * @return The amount of symptoms in the dictionary.
+     */
+    public static int size() {
+        return INDICES.size();
+    }
+
+    /**
+     * Returns a bit set containing the dense index of every given symptom.
+     *
+     * @param symptoms The symptoms to encode.
+     * @return A bit set encoding the given symptoms.
+     */
+    public static long[] encode(Collection<Symptom> symptoms) {
+        int[] indices = indices(symptoms);
+        long[] bits = new long[indices.length == 0
+                ? 0
+                : Bits.words(indices[indices.length - 1] + 1)];
+        for (int index : indices) {
+            Bits.set(bits, index);
+        }
+        return bits;
+    }
+
+    /**
+     * Returns an ascending array containing the dense index of every given
+     * symptom, without duplicates.
+     *
+     * @param symptoms The symptoms to encode.
+     * @return An ascending array of the dense indices of the given symptoms.
+     */
+    public static int[] indices(Collection<Symptom> symptoms) {
+        int[] indices = new int[symptoms.size()];
+        int i = 0;
+        for (Symptom symptom : symptoms) {
+            indices[i++] = indexOf(symptom);
+        }
+        Arrays.sort(indices);
+        int distinct = 0;
+        for (int j = 0; j < i; j++) {
+            if (distinct == 0 || indices[j] != indices[distinct - 1]) {
+                indices[distinct++] = indices[j];
+            }
+        }
+        return distinct == indices.length
+                ? indices
+                : Arrays.copyOf(indices, distinct);
+    }
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private SymptomDictionary() {
+        throw new InstantiationError("No instances allowed, pal!");
+    }
+
+}
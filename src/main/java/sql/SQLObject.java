@@ -1,9 +1,11 @@
 package sql;
 
+import util.primitive.IntSets;
 import util.reflect.ReflectiveToStringHelper;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Objects;
 
 /**
@@ -204,5 +206,21 @@ public abstract class SQLObject<T extends SQLObject>
         return f.toString(e -> f.get(e.getKey()));
     }
 
+    /**
+     * Returns the identification numbers of the given objects as an ascending
+     * array without duplicates, for use with {@link IntSets}.
+     *
+     * @param objects The objects whose identification numbers to return.
+     * @return The sorted, distinct identification numbers of the given
+     *         objects.
+     */
+    public static int[] ids(Collection<? extends SQLObject<?>> objects) {
+        int[] ids = new int[objects.size()];
+        int i = 0;
+        for (SQLObject<?> object : objects) {
+            ids[i++] = object.getID();
+        }
+        return IntSets.of(ids);
+    }
 
 }
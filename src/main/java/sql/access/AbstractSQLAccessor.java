@@ -8,11 +8,20 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides a skeletal implementation of the {@link BaseAccessor}
@@ -29,6 +38,12 @@ public abstract class AbstractSQLAccessor<T extends SQLObject<? super T>>
     implements SQLAccessor<T>
 {
 
+    /**
+     * The amount of rows the driver is asked to fetch from the database at a
+     * time when streaming a result.
+     */
+    private static final int FETCH_SIZE = 256;
+
     private static final Logger LOG =
             Logger.getLogger(AbstractSQLAccessor.class.getName());
 
@@ -42,6 +57,11 @@ public abstract class AbstractSQLAccessor<T extends SQLObject<? super T>>
      */
     private final Table<T> table;
 
+    /**
+     * The listeners notified after every successful write.
+     */
+    private final List<AccessorListener<? super T>> listeners;
+
     /**
      * Sole constructor for use by subclasses only. Constructs a new
      * {@code AbstractSQLAccessor} with the given arguments.
@@ -53,6 +73,7 @@ public abstract class AbstractSQLAccessor<T extends SQLObject<? super T>>
     protected AbstractSQLAccessor(Connection connection, Table<T> table) {
         this.connection = connection;
         this.table = table;
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
     /**
@@ -101,6 +122,128 @@ public abstract class AbstractSQLAccessor<T extends SQLObject<? super T>>
         return data;
     }
 
+    /**
+     * Queries the table represented by this object using the given
+     * {@code String} SQL statement, returning a lazily populated
+     * {@code Stream} of the result.
+     *
+     * <p> Each row is converted into a Java object only when the returned
+     * {@code Stream} requests it. The statement and its result are closed
+     * when the {@code Stream} is exhausted or closed, whichever comes first.
+     * Errors are logged, and end the {@code Stream} early.
+     *
+     * @param statement The SQL statement to execute.
+     * @return A {@code Stream} of the result of executing the given SQL
+     *         statement.
+     */
+    @Override
+    public Stream<T> cursor(String statement) {
+        PreparedStatement s = null;
+        try {
+            s = connection.prepareStatement(statement);
+            s.setFetchSize(FETCH_SIZE);
+            Cursor cursor = new Cursor(s, s.executeQuery());
+            return StreamSupport
+                    .stream(cursor, false)
+                    .onClose(cursor :: close);
+        }
+        catch (SQLException ex) {
+            LOG.log(Level.SEVERE, null, ex);
+            close(s);
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Closes the given statement, if it is not {@code null}, logging any
+     * error.
+     *
+     * @param s The statement to close.
+     */
+    private static void close(Statement s) {
+        if (s != null) {
+            try {
+                s.close();
+            }
+            catch (SQLException ex) {
+                LOG.log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Inserts the given object into the database, notifying every registered
+     * listener if the operation was successful.
+     *
+     * @param t The object to insert.
+     * @return {@code true} if the add operation was successful.
+     */
+    @Override
+    public boolean insert(T t) {
+        boolean inserted = SQLAccessor.super.insert(t);
+        if (inserted) {
+            listeners.forEach(listener -> listener.inserted(t));
+        }
+        return inserted;
+    }
+
+    /**
+     * Deletes the given object from the database, notifying every registered
+     * listener if the operation was successful.
+     *
+     * @param t The element to delete.
+     * @return {@code true} if the delete operation was successful.
+     */
+    @Override
+    public boolean delete(T t) {
+        boolean deleted = SQLAccessor.super.delete(t);
+        if (deleted) {
+            listeners.forEach(listener -> listener.deleted(t));
+        }
+        return deleted;
+    }
+
+    /**
+     * Updates the given object in the database, notifying every registered
+     * listener if the operation was successful.
+     *
+     * @param t The object containing the updated data.
+     * @return {@code true} if the update operation was successful.
+     */
+    @Override
+    public boolean update(T t) {
+        boolean updated = SQLAccessor.super.update(t);
+        if (updated) {
+            listeners.forEach(listener -> listener.updated(t));
+        }
+        return updated;
+    }
+
+    /**
+     * Registers the given listener to be notified after every successful
+     * write performed through this accessor.
+     *
+     * @param listener The listener to register.
+     * @throws NullPointerException if the given listener is {@code null}.
+     */
+    @Override
+    public void addListener(AccessorListener<? super T> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Unregisters the given listener, returning {@code true} if it was
+     * registered, {@code false} otherwise.
+     *
+     * @param listener The listener to unregister.
+     * @return {@code true} if the given listener was registered, {@code false}
+     *         otherwise.
+     */
+    @Override
+    public boolean removeListener(AccessorListener<? super T> listener) {
+        return listeners.remove(listener);
+    }
+
     /**
      * Returns a {@code String} containing the name, Java object class, and
      * database connection of this object.
@@ -115,4 +258,77 @@ public abstract class AbstractSQLAccessor<T extends SQLObject<? super T>>
                 + "].";
     }
 
+    /**
+     * A {@code Spliterator} converting the rows of a {@code ResultSet} into
+     * Java objects one at a time, and closing its statement once exhausted.
+     */
+    private final class Cursor
+        extends Spliterators.AbstractSpliterator<T>
+    {
+
+        /**
+         * The statement that produced {@link #result}.
+         */
+        private final Statement statement;
+
+        /**
+         * The rows to convert.
+         */
+        private final ResultSet result;
+
+        /**
+         * Whether the statement has been closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructs a {@code Cursor} with the given arguments.
+         *
+         * @param statement The statement that produced the given result.
+         * @param result The rows to convert.
+         */
+        private Cursor(Statement statement, ResultSet result) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.statement = statement;
+            this.result = result;
+        }
+
+        /**
+         * Converts the next row, if any, and passes it to the given action.
+         *
+         * @param action The action to perform on the converted row.
+         * @return {@code false} if there are no more rows, {@code true}
+         *         otherwise.
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (result.next()) {
+                    action.accept(createFromSQL(result));
+                    return true;
+                }
+            }
+            catch (SQLException ex) {
+                LOG.log(Level.SEVERE, null, ex);
+            }
+            close();
+            return false;
+        }
+
+        /**
+         * Closes the statement, and with it the result, if they are not
+         * already closed.
+         */
+        private void close() {
+            if (!closed) {
+                closed = true;
+                AbstractSQLAccessor.close(statement);
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,43 @@
+package sql.access;
+
+/**
+ * A listener notified after an accessor successfully writes to the database.
+ *
+ * <p> Each method is invoked on the thread that performed the write, after the
+ * write has completed. Implementations should therefore return quickly. The
+ * default implementation of every method does nothing.
+ *
+ * @param <T> The type of elements written by the accessor.
+ * @see BaseAccessor#addListener(AccessorListener)
+ * @author Oliver Abdulrahim
+ */
+public interface AccessorListener<T> {
+
+    /**
+     * Invoked after the given object is inserted into the database.
+     *
+     * @param t The object that was inserted.
+     */
+    default void inserted(T t) {
+
+    }
+
+    /**
+     * Invoked after the given object is updated in the database.
+     *
+     * @param t The object containing the updated data.
+     */
+    default void updated(T t) {
+
+    }
+
+    /**
+     * Invoked after the given object is deleted from the database.
+     *
+     * @param t The object that was deleted.
+     */
+    default void deleted(T t) {
+
+    }
+
+}
@@ -0,0 +1,158 @@
+package sql.access;
+
+import sql.SQLObject;
+import util.concurrent.BoundedExecutor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs the operations of an {@link SQLAccessor} on a {@link BoundedExecutor},
+ * returning their results as {@code CompletableFuture}s instead of blocking
+ * the caller.
+ *
+ * <p> Cancelling a returned future before its operation starts skips the
+ * operation, and cancelling it while the operation runs interrupts it. Scans
+ * check for interruption between rows, so a cancelled scan stops reading and
+ * releases its database resources promptly.
+ *
+ * @param <T> The type of elements stored by the accessor, parametrized over
+ *        {@link SQLObject}.
+ * @author Oliver Abdulrahim
+ */
+public final class AsyncAccessor<T extends SQLObject<? super T>> {
+
+    /**
+     * The accessor whose operations to run.
+     */
+    private final SQLAccessor<T> accessor;
+
+    /**
+     * The executor running the operations.
+     */
+    private final BoundedExecutor executor;
+
+    /**
+     * Constructs an {@code AsyncAccessor} with the given arguments.
+     *
+     * @param accessor The accessor whose operations to run.
+     * @param executor The executor running the operations.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    public AsyncAccessor(SQLAccessor<T> accessor, BoundedExecutor executor) {
+        this.accessor = Objects.requireNonNull(accessor);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Returns the accessor whose operations this object runs.
+     *
+     * @return The underlying accessor.
+     */
+    public SQLAccessor<T> accessor() {
+        return accessor;
+    }
+
+    /**
+     * Asynchronously executes the given SQL statement.
+     *
+     * @param statement The SQL statement to execute.
+     * @return A future completed with the result of the statement.
+     * @see SQLAccessor#query(String)
+     */
+    public CompletableFuture<Collection<T>> query(String statement) {
+        return executor.submit(() -> accessor.query(statement));
+    }
+
+    /**
+     * Asynchronously reads every row of the table of the underlying accessor.
+     *
+     * @return A future completed with a {@code List} of every row.
+     * @see SQLAccessor#all()
+     */
+    public CompletableFuture<List<T>> all() {
+        return scan(rows -> rows.collect(Collectors.toList()));
+    }
+
+    /**
+     * Asynchronously streams every row of the table of the underlying accessor
+     * through the given function, which must consume the stream before it
+     * returns. The stream is closed afterwards.
+     *
+     * @param function The function consuming the rows.
+     * @param <R> The type of the result of the function.
+     * @return A future completed with the result of the function.
+     * @see SQLAccessor#scan()
+     */
+    public <R> CompletableFuture<R> scan(
+            Function<? super Stream<T>, ? extends R> function)
+    {
+        Objects.requireNonNull(function);
+        return executor.submit(() -> {
+            try (Stream<T> rows = accessor.scan()) {
+                return function.apply(rows.peek(row -> {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException();
+                    }
+                }));
+            }
+        });
+    }
+
+    /**
+     * Asynchronously finds the element with the given identification number.
+     *
+     * @param id The identification number.
+     * @return A future completed with an {@code Optional} containing the
+     *         element, or an empty one if there is no such element.
+     * @see SQLAccessor#find(int)
+     */
+    public CompletableFuture<Optional<T>> find(int id) {
+        return executor.submit(() -> accessor.find(id));
+    }
+
+    /**
+     * Asynchronously inserts the given object.
+     *
+     * @param t The object to insert.
+     * @return A future completed with {@code true} if the operation was
+     *         successful.
+     * @see SQLAccessor#insert(SQLObject)
+     */
+    public CompletableFuture<Boolean> insert(T t) {
+        return executor.submit(() -> accessor.insert(t));
+    }
+
+    /**
+     * Asynchronously deletes the given object.
+     *
+     * @param t The object to delete.
+     * @return A future completed with {@code true} if the operation was
+     *         successful.
+     * @see SQLAccessor#delete(SQLObject)
+     */
+    public CompletableFuture<Boolean> delete(T t) {
+        return executor.submit(() -> accessor.delete(t));
+    }
+
+    /**
+     * Asynchronously updates the given object.
+     *
+     * @param t The object containing the updated data.
+     * @return A future completed with {@code true} if the operation was
+     *         successful.
+     * @see SQLAccessor#update(SQLObject)
+     */
+    public CompletableFuture<Boolean> update(T t) {
+        return executor.submit(() -> accessor.update(t));
+    }
+
+}
@@ -61,4 +61,24 @@ public interface BaseAccessor<T>
      */
     boolean update(T t);
 
+    /**
+     * Registers the given listener to be notified after every successful
+     * {@link #insert(Object) insert}, {@link #update(Object) update}, and
+     * {@link #delete(Object) delete} performed through this accessor.
+     *
+     * @param listener The listener to register.
+     * @throws NullPointerException if the given listener is {@code null}.
+     */
+    void addListener(AccessorListener<? super T> listener);
+
+    /**
+     * Unregisters the given listener, returning {@code true} if it was
+     * registered, {@code false} otherwise.
+     *
+     * @param listener The listener to unregister.
+     * @return {@code true} if the given listener was registered, {@code false}
+     *         otherwise.
+     */
+    boolean removeListener(AccessorListener<? super T> listener);
+
 }
@@ -1,15 +1,24 @@
 package sql.access;
 
+import compute.PatientIndex;
+import compute.Ranking;
 import model.Ailment;
 import model.Patient;
 import model.Symptom;
 import sql.Database;
+import util.primitive.IntLongHashMap;
+import util.primitive.IntSets;
+import util.sketch.HyperLogLog;
 import util.stream.Streams;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of {@link AbstractSQLAccessor} that wraps the
@@ -23,6 +32,12 @@ public class PatientAccessor
     extends AbstractSQLAccessor<Patient>
 {
 
+    /**
+     * The index answering similar-patient queries, or {@code null} if it has
+     * not been built yet.
+     */
+    private volatile PatientIndex index;
+
     /**
      * Constructs a {@code PatientAccessor} using the given {@code Connection}.
      *
@@ -46,6 +61,45 @@ public class PatientAccessor
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Returns the {@code k} patients most similar to the given one by their
+     * symptoms, age group and gender, most similar first.
+     *
+     * <p> The first call loads every patient into a {@link PatientIndex},
+     * which is then kept up to date with every write made through this
+     * accessor.
+     *
+     * @param patient The patient whose most similar patients to return.
+     * @param k The maximum amount of patients to return.
+     * @return A {@code Ranking} of the patients most similar to the given one.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     * @see PatientIndex#similar(Patient, int)
+     */
+    public Ranking<Patient> similar(Patient patient, int k) {
+        return index().similar(patient, k);
+    }
+
+    /**
+     * Returns the similar-patient index of this accessor, building and
+     * registering it if this is the first call.
+     *
+     * @return The similar-patient index of this accessor.
+     */
+    private PatientIndex index() {
+        PatientIndex i = index;
+        if (i == null) {
+            synchronized (this) {
+                i = index;
+                if (i == null) {
+                    i = new PatientIndex(all().collect(Collectors.toList()));
+                    addListener(i);
+                    index = i;
+                }
+            }
+        }
+        return i;
+    }
+
     /**
      * Returns a {@code Set} containing the union of ailments of all
      * {@code Patient}s in the given {@code Collection}, or in other words, all
@@ -55,9 +109,56 @@ public class PatientAccessor
      *         {@code Patient}s in the given {@code Collection}.
      */
     public Set<Ailment> union() {
-        return Streams.flatUnion(
-                all(),
-                patient -> patient.getAilments().stream()
+        Set<Ailment> union = new HashSet<>();
+        IntLongHashMap seen = new IntLongHashMap();
+        Iterator<Patient> it = all().iterator();
+        while (it.hasNext()) {
+            Patient patient = it.next();
+            boolean fresh = false;
+            for (int id : patient.ailmentIds()) {
+                fresh |= seen.add(id, 1L) == 1L;
+            }
+            if (fresh) {
+                union.addAll(patient.getAilments());
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Returns the estimated amount of distinct ailments among all patients,
+     * without collecting them as {@link #union()} does.
+     *
+     * @return The estimated amount of distinct ailments.
+     * @see #distinctAilments(Predicate, int)
+     */
+    public long distinctAilments() {
+        return distinctAilments(patient -> true, HyperLogLog.DEFAULT_REGISTERS)
+                .estimate();
+    }
+
+    /**
+     * Returns a {@code HyperLogLog} sketch of the distinct ailments of the
+     * patients matching the given {@code Predicate}, such as a cohort. The
+     * sketches of different cohorts, built with the same amount of registers,
+     * can be merged to count the distinct ailments of their union.
+     *
+     * @param cohort The {@code Predicate} selecting the patients to include.
+     * @param registers The amount of registers of the sketch.
+     * @return A {@code HyperLogLog} sketch of the distinct ailments of the
+     *         selected patients.
+     * @throws IllegalArgumentException if the amount of registers is invalid.
+     */
+    public HyperLogLog distinctAilments(
+            Predicate<? super Patient> cohort,
+            int registers)
+    {
+        return Streams.distinct(
+                all()
+                        .filter(cohort)
+                        .flatMapToInt(patient ->
+                                IntStream.of(patient.ailmentIds())),
+                registers
         );
     }
 
@@ -71,10 +172,19 @@ public class PatientAccessor
      *         given {@code Patient}s.
      */
     public static Set<Symptom> intersection(Patient first, Patient second) {
-        return Streams.intersection(
-                first.getSymptoms().stream(),
-                second.getSymptoms().stream()
+        int[] shared = IntSets.intersection(
+                first.symptomIds(),
+                second.symptomIds()
         );
+        Set<Symptom> intersection = new HashSet<>();
+        if (shared.length > 0) {
+            for (Symptom symptom : first.getSymptoms()) {
+                if (IntSets.contains(shared, symptom.getID())) {
+                    intersection.add(symptom);
+                }
+            }
+        }
+        return intersection;
     }
 
     /**
@@ -9,6 +9,8 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,6 +40,27 @@ public interface SQLAccessor<T extends SQLObject<? super T>>
      */
     Collection<T> query(String statement);
 
+    /**
+     * Queries the table represented by this object using the given
+     * {@code String} SQL statement, returning a lazily populated
+     * {@code Stream} of the result.
+     *
+     * <p> Rows are read from the database as the returned {@code Stream} is
+     * consumed, so that no more than a small, fixed amount of them is held in
+     * memory at once. The {@code Stream} holds database resources until it is
+     * exhausted or closed, and should be used within a try-with-resources
+     * statement.
+     *
+     * @param statement The SQL statement to execute.
+     * @return A {@code Stream} of the result of executing the given SQL
+     *         statement.
+     * @implSpec The default implementation returns a {@code Stream} over the
+     *           result of {@link #query(String)}, which is not lazy.
+     */
+    default Stream<T> cursor(String statement) {
+        return query(statement).stream();
+    }
+
     /**
      * Returns a new object of generic type {@code T} and updates its contents
      * using the given {@code ResultSet}.
@@ -68,6 +91,37 @@ public interface SQLAccessor<T extends SQLObject<? super T>>
         return query(q).stream();
     }
 
+    /**
+     * Returns a {@code Spliterator} over all rows in the SQL table that this
+     * object represents. The rows are fetched once into an array, so the
+     * returned spliterator is {@code SIZED} and {@code SUBSIZED} and splits
+     * evenly for parallel streams.
+     *
+     * @return A {@code Spliterator} of the data contained in the SQL table
+     *         this object represents.
+     */
+    @Override
+    default Spliterator<T> spliterator() {
+        String q = "SELECT * FROM " + tableName();
+        return Spliterators.spliterator(query(q).toArray(),
+                Spliterator.IMMUTABLE | Spliterator.DISTINCT
+                        | Spliterator.NONNULL);
+    }
+
+    /**
+     * Returns a lazily populated {@code Stream} containing all rows in the SQL
+     * table that this object represents, expressed as Java objects. The
+     * {@code Stream} should be used within a try-with-resources statement.
+     *
+     * @return A lazily populated {@code Stream} of the data contained in the
+     *         SQL table this object represents.
+     * @see #cursor(String)
+     */
+    default Stream<T> scan() {
+        String q = "SELECT * FROM " + tableName();
+        return cursor(q);
+    }
+
     /**
      * Inserts the given object into the database using an {@code INSERT}
      * statement, returning {@code true} if the operation was successful.
@@ -0,0 +1,345 @@
+package util.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blocking tasks off the calling thread, returning their results as
+ * {@code CompletableFuture}s, with at most a fixed amount of tasks running at
+ * once.
+ *
+ * <p> Tasks run on virtual threads when the running JDK provides them, and on
+ * a fixed pool of daemon threads otherwise. Either way, submitting a task
+ * never blocks the caller, and excess tasks queue rather than stall the thread
+ * that submitted them. On virtual threads, or on an executor given by the
+ * caller, the bound is enforced by a semaphore: a task waits for a permit on
+ * its own thread. The fixed pool has exactly {@code bound} threads, so it
+ * enforces the bound itself, and excess tasks wait in its unbounded queue;
+ * the semaphore never blocks there.
+ *
+ * <p> Cancelling a returned future cancels its task. A task cancelled before
+ * it starts never runs, and a running task has its thread interrupted; tasks
+ * that block on interruptible operations, or check the interrupt status of
+ * their thread, stop early.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class BoundedExecutor
+    implements AutoCloseable
+{
+
+    /**
+     * The default maximum amount of tasks running at once.
+     */
+    public static final int DEFAULT_BOUND = 64;
+
+    /**
+     * The executor running the tasks.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The permits held by running tasks.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The maximum amount of tasks running at once.
+     */
+    private final int bound;
+
+    /**
+     * Whether tasks run on virtual threads started by this object.
+     */
+    private final boolean virtual;
+
+    /**
+     * The amount of tasks submitted.
+     */
+    private final LongAdder submitted;
+
+    /**
+     * The amount of tasks cancelled.
+     */
+    private final LongAdder cancelled;
+
+    /**
+     * Constructs a {@code BoundedExecutor} running at most
+     * {@value #DEFAULT_BOUND} tasks at once.
+     */
+    public BoundedExecutor() {
+        this(DEFAULT_BOUND);
+    }
+
+    /**
+     * Constructs a {@code BoundedExecutor} running at most the given amount of
+     * tasks at once, on virtual threads if they are available.
+     *
+     * @param bound The maximum amount of tasks running at once.
+     * @throws IllegalArgumentException if the given bound is not positive.
+     */
+    public BoundedExecutor(int bound) {
+        this(bound, virtualThreadExecutor(), true);
+    }
+
+    /**
+     * Constructs a {@code BoundedExecutor} with the given arguments.
+     *
+     * @param bound The maximum amount of tasks running at once.
+     * @param executor The executor to run tasks on, or {@code null} to use a
+     *        fixed pool of {@code bound} daemon threads.
+     * @param virtual Whether the given executor runs each task on a virtual
+     *        thread.
+     * @throws IllegalArgumentException if the given bound is not positive.
+     */
+    private BoundedExecutor(
+            int bound,
+            ExecutorService executor,
+            boolean virtual)
+    {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound : " + bound);
+        }
+        this.virtual = virtual && executor != null;
+        this.executor = executor != null ? executor : fixedThreadPool(bound);
+        this.permits = new Semaphore(bound);
+        this.bound = bound;
+        this.submitted = new LongAdder();
+        this.cancelled = new LongAdder();
+    }
+
+    /**
+     * Constructs a {@code BoundedExecutor} running tasks on the given
+     * executor, at most the given amount at once. {@link #isVirtual()}
+     * returns {@code false} for such an executor, whatever threads it uses.
+     *
+     * @param executor The executor to run tasks on.
+     * @param bound The maximum amount of tasks running at once.
+     * @throws NullPointerException if the given executor is {@code null}.
+     * @throws IllegalArgumentException if the given bound is not positive.
+     */
+    public BoundedExecutor(ExecutorService executor, int bound) {
+        this(bound, Objects.requireNonNull(executor), false);
+    }
+
+    /**
+     * Returns an executor starting a new virtual thread for each task, or
+     * {@code null} if the running JDK does not provide virtual threads.
+     *
+     * @return An executor running each task on a virtual thread, or
+     *         {@code null}.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a fixed pool of the given amount of daemon threads.
+     *
+     * @param threads The amount of threads in the pool.
+     * @return A fixed pool of daemon threads.
+     */
+    private static ExecutorService fixedThreadPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task,
+                    "bounded-executor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Submits the given task, returning a future completed with its result.
+     * If the task throws, the future is completed exceptionally with the
+     * thrown exception.
+     *
+     * @param task The task to run.
+     * @param <T> The type of the result of the task.
+     * @return A future completed with the result of the given task.
+     * @throws NullPointerException if the given task is {@code null}.
+     */
+    public <T> CompletableFuture<T> submit(Callable<? extends T> task) {
+        Objects.requireNonNull(task);
+        Task<T> future = new Task<>();
+        submitted.increment();
+        try {
+            future.attach(executor.submit(() -> future.run(task)));
+        }
+        catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Submits the given task, returning a future completed when it finishes.
+     *
+     * @param task The task to run.
+     * @return A future completed when the given task finishes.
+     * @throws NullPointerException if the given task is {@code null}.
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        Objects.requireNonNull(task);
+        return submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns {@code true} if tasks run on virtual threads started by this
+     * object, {@code false} if they run on a fixed pool of threads or on an
+     * executor given by the caller.
+     *
+     * @return {@code true} if tasks run on virtual threads.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Returns the maximum amount of tasks running at once.
+     *
+     * @return The maximum amount of tasks running at once.
+     */
+    public int bound() {
+        return bound;
+    }
+
+    /**
+     * Returns the amount of tasks currently running.
+     *
+     * @return The amount of tasks running.
+     */
+    public int inFlight() {
+        return bound - permits.availablePermits();
+    }
+
+    /**
+     * Returns the amount of tasks submitted to this executor.
+     *
+     * @return The amount of tasks submitted.
+     */
+    public long submitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * Returns the amount of tasks cancelled through their futures.
+     *
+     * @return The amount of tasks cancelled.
+     */
+    public long cancelled() {
+        return cancelled.sum();
+    }
+
+    /**
+     * Stops accepting tasks. Tasks already submitted still run, and tasks
+     * submitted afterwards complete exceptionally.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * A future whose cancellation cancels, and possibly interrupts, the task
+     * completing it.
+     *
+     * @param <T> The type of the result of the task.
+     */
+    private final class Task<T>
+        extends CompletableFuture<T>
+    {
+
+        /**
+         * The submitted task, or {@code null} if it has not been attached.
+         */
+        private volatile Future<?> worker;
+
+        /**
+         * Attaches the submitted task to this future, cancelling it if this
+         * future was cancelled first.
+         *
+         * @param worker The submitted task.
+         */
+        private void attach(Future<?> worker) {
+            this.worker = worker;
+            if (isCancelled()) {
+                worker.cancel(true);
+            }
+        }
+
+        /**
+         * Runs the given task once a permit is available, completing this
+         * future with its outcome. Does nothing if this future is already
+         * complete.
+         *
+         * @param task The task to run.
+         */
+        private void run(Callable<? extends T> task) {
+            if (isDone()) {
+                return;
+            }
+            try {
+                permits.acquire();
+            }
+            catch (InterruptedException ex) {
+                completeExceptionally(ex);
+                return;
+            }
+            try {
+                if (!isDone()) {
+                    complete(task.call());
+                }
+            }
+            catch (Throwable ex) {
+                completeExceptionally(ex);
+            }
+            finally {
+                permits.release();
+            }
+        }
+
+        /**
+         * Cancels this future, and the task completing it.
+         *
+         * @param mayInterruptIfRunning Ignored; a running task is always
+         *        interrupted.
+         * @return {@code true} if this future is now cancelled.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean result = super.cancel(mayInterruptIfRunning);
+            if (result) {
+                cancelled.increment();
+                Future<?> w = worker;
+                if (w != null) {
+                    w.cancel(true);
+                }
+            }
+            return result;
+        }
+
+    }
+
+}
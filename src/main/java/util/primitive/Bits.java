@@ -0,0 +1,133 @@
+package util.primitive;
+
+/**
+ * The {@code Bits} class contains utility methods for bit sets encoded as
+ * {@code long} arrays, where bit {@code i} is stored in word {@code i / 64}.
+ *
+ * <p> Arrays of differing lengths are permitted; missing words are treated as
+ * zero. All set operations run as a single {@link Long#bitCount(long) popcount}
+ * loop over the shorter array and allocate nothing.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class Bits {
+
+    /**
+     * Returns the amount of {@code long} words needed to hold the given amount
+     * of bits.
+     *
+     * @param bits The amount of bits.
+     * @return The amount of words needed to hold the given amount of bits.
+     */
+    public static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Sets the given bit in the given bit set.
+     *
+     * @param set The bit set to modify.
+     * @param bit The index of the bit to set.
+     */
+    public static void set(long[] set, int bit) {
+        set[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Returns {@code true} if the given bit is set in the given bit set,
+     * {@code false} otherwise.
+     *
+     * @param set The bit set to test.
+     * @param bit The index of the bit to test.
+     * @return {@code true} if the given bit is set, {@code false} otherwise.
+     */
+    public static boolean get(long[] set, int bit) {
+        int word = bit >>> 6;
+        return word < set.length && (set[word] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Returns the amount of bits set in the given bit set.
+     *
+     * @param set The bit set to count.
+     * @return The amount of bits set.
+     */
+    public static int cardinality(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the amount of bits set in both of the given bit sets, or in
+     * other words, the cardinality of their intersection.
+     *
+     * @param a The bit set to intersect with {@code b}.
+     * @param b The bit set to intersect with {@code a}.
+     * @return The cardinality of the intersection of the given bit sets.
+     */
+    public static int overlap(long[] a, long[] b) {
+        int length = Math.min(a.length, b.length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if every bit set in {@code a} is also set in
+     * {@code b}, {@code false} otherwise.
+     *
+     * @param a The bit set to test for inclusion in {@code b}.
+     * @param b The bit set to test against.
+     * @return {@code true} if {@code a} is a subset of {@code b}, {@code false}
+     *         otherwise.
+     */
+    public static boolean isSubset(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            long other = i < b.length ? b[i] : 0L;
+            if ((a[i] & ~other) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the Jaccard similarity {@code |A ∩ B| / |A ∪ B|} of the given bit
+     * sets, or {@code 0} if both are empty.
+     *
+     * @param a The bit set to test against {@code b}.
+     * @param b The bit set to test against {@code a}.
+     * @return The Jaccard similarity of the given bit sets.
+     */
+    public static double jaccard(long[] a, long[] b) {
+        int overlap = overlap(a, b);
+        int union = cardinality(a) + cardinality(b) - overlap;
+        return union == 0 ? 0.0 : (double) overlap / union;
+    }
+
+    /**
+     * Returns the Dice similarity {@code 2|A ∩ B| / (|A| + |B|)} of the given
+     * bit sets, or {@code 0} if both are empty.
+     *
+     * @param a The bit set to test against {@code b}.
+     * @param b The bit set to test against {@code a}.
+     * @return The Dice similarity of the given bit sets.
+     */
+    public static double dice(long[] a, long[] b) {
+        int total = cardinality(a) + cardinality(b);
+        return total == 0 ? 0.0 : 2.0 * overlap(a, b) / total;
+    }
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Bits() {
+        throw new InstantiationError("No instances allowed, pal!");
+    }
+
+}
@@ -0,0 +1,73 @@
+package util.primitive;
+
+/**
+ * The {@code Hashing} class contains utility methods for computing
+ * well-distributed hash codes of primitive values.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class Hashing {
+
+    /**
+     * The golden-ratio increment used to derive successive seeds.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Returns a well-distributed 64-bit hash of the given value, such that
+     * every bit of the input affects every bit of the output.
+     *
+     * @param value The value to hash.
+     * @return A 64-bit hash of the given value.
+     * @implNote This is the finalizer of the SplitMix64 generator.
+     */
+    public static long mix64(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the given amount of independent 64-bit seeds derived from the
+     * given base seed. The same arguments always produce the same seeds.
+     *
+     * @param seed The base seed.
+     * @param count The amount of seeds to derive.
+     * @return An array of the given length holding the derived seeds.
+     */
+    public static long[] seeds(long seed, int count) {
+        long[] seeds = new long[count];
+        long state = seed;
+        for (int i = 0; i < count; i++) {
+            state += GOLDEN_GAMMA;
+            seeds[i] = mix64(state);
+        }
+        return seeds;
+    }
+
+    /**
+     * Returns a 64-bit hash of the given sequence of {@code int} values, which
+     * depends on both the values and their order.
+     *
+     * @param values The values to hash.
+     * @param from The first index of the values to hash, inclusive.
+     * @param to The last index of the values to hash, exclusive.
+     * @return A 64-bit hash of the given values.
+     */
+    public static long hash(int[] values, int from, int to) {
+        long h = to - from;
+        for (int i = from; i < to; i++) {
+            h = mix64(h * GOLDEN_GAMMA + values[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private Hashing() {
+        throw new InstantiationError("No instances allowed, pal!");
+    }
+
+}
@@ -0,0 +1,113 @@
+package util.primitive;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe, append-only dictionary assigning dense indices to sparse
+ * {@code int} keys.
+ *
+ * <p> The first key looked up is assigned index {@code 0}, the next new key
+ * index {@code 1}, and so on. Indices are never reassigned or removed, so any
+ * structure encoded against this dictionary stays valid as the dictionary
+ * grows.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class IntDictionary {
+
+    /**
+     * Maps keys to their dense indices.
+     */
+    private final Map<Integer, Integer> indices;
+
+    /**
+     * The keys of this dictionary, by index. Guarded by {@code this}.
+     */
+    private volatile int[] keys;
+
+    /**
+     * The amount of keys in this dictionary. Guarded by {@code this}.
+     */
+    private volatile int size;
+
+    /**
+     * Constructs an empty {@code IntDictionary}.
+     */
+    public IntDictionary() {
+        this.indices = new ConcurrentHashMap<>();
+        this.keys = new int[16];
+    }
+
+    /**
+     * Returns the dense index of the given key, assigning it the next free
+     * index if it is not yet present.
+     *
+     * @param key The key whose index to return.
+     * @return The dense index of the given key.
+     */
+    public int indexOf(int key) {
+        Integer index = indices.get(key);
+        return index != null ? index : add(key);
+    }
+
+    /**
+     * Returns the dense index of the given key, or {@code -1} if the key is not
+     * present. Unlike {@link #indexOf(int)}, this never grows the dictionary.
+     *
+     * @param key The key whose index to return.
+     * @return The dense index of the given key, or {@code -1}.
+     */
+    public int find(int key) {
+        Integer index = indices.get(key);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the key assigned the given dense index.
+     *
+     * @param index The dense index of the key.
+     * @return The key assigned the given index.
+     * @throws IndexOutOfBoundsException if the given index is not assigned.
+     */
+    public int keyAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index : " + index);
+        }
+        return keys[index];
+    }
+
+    /**
+     * Returns the amount of keys in this dictionary. Every index less than this
+     * value is assigned.
+     *
+     * @return The amount of keys in this dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Assigns the next free index to the given key, unless another thread has
+     * done so first.
+     *
+     * @param key The key to add.
+     * @return The dense index of the given key.
+     */
+    private synchronized int add(int key) {
+        Integer existing = indices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int index = size;
+        if (index == keys.length) {
+            keys = Arrays.copyOf(keys, index * 2);
+        }
+        keys[index] = key;
+        size = index + 1;
+        indices.put(key, index);
+        return index;
+    }
+
+}
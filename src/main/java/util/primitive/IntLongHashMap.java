@@ -0,0 +1,421 @@
+package util.primitive;
+
+import java.util.Arrays;
+import java.util.OptionalInt;
+
+/**
+ * A map from {@code int} keys to {@code long} values, stored in flat
+ * primitive arrays by open addressing with linear probing, typically used to
+ * count occurrences of identification numbers.
+ *
+ * <p> Unlike a {@code Map<Integer, Long>}, this map boxes nothing, and adding
+ * to the value of a key present in it allocates nothing. Maps built
+ * separately, such as by the threads of a parallel stream, are combined with
+ * {@link #merge(IntLongHashMap)}, which adds their values.
+ *
+ * <p> The key with the greatest value is tracked as values are added, so
+ * {@link #mostFrequent()} answers without scanning the map as long as no
+ * value has decreased. {@link #leastFrequent()} scans the primitive arrays
+ * once, never the entries of a stream.
+ *
+ * @implSpec This class is mutable, and therefore not thread-safe!
+ * @author Oliver Abdulrahim
+ */
+public final class IntLongHashMap {
+
+    /**
+     * Accepts a key and its value.
+     *
+     * <p>This is a <em>functional interface</em> whose functional method is
+     * {@link #accept(int, long)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs this operation on the given key and value.
+         *
+         * @param key The key.
+         * @param value The value of the key.
+         */
+        void accept(int key, long value);
+
+    }
+
+    /**
+     * The default initial capacity of the tables.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The greatest fraction of table slots that may be occupied before the
+     * tables grow.
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    /**
+     * The keys, by slot. Slots holding {@code 0} are free, the key {@code 0}
+     * itself being stored separately.
+     */
+    private int[] keys;
+
+    /**
+     * The values, by slot, parallel to {@link #keys}.
+     */
+    private long[] values;
+
+    /**
+     * The amount of occupied slots.
+     */
+    private int occupied;
+
+    /**
+     * The amount of occupied slots above which the tables grow.
+     */
+    private int limit;
+
+    /**
+     * Whether the key {@code 0} is present.
+     */
+    private boolean hasZero;
+
+    /**
+     * The value of the key {@code 0}, if it is present.
+     */
+    private long zeroValue;
+
+    /**
+     * The key with the greatest value, if {@link #maxStale} is {@code false}
+     * and this map is not empty.
+     */
+    private int maxKey;
+
+    /**
+     * The greatest value, if {@link #maxStale} is {@code false} and this map
+     * is not empty.
+     */
+    private long maxValue;
+
+    /**
+     * Whether {@link #maxKey} must be recomputed because a value decreased.
+     */
+    private boolean maxStale;
+
+    /**
+     * Constructs an empty {@code IntLongHashMap}.
+     */
+    public IntLongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@code IntLongHashMap} that holds the given amount
+     * of keys without growing.
+     *
+     * @param expected The amount of keys expected.
+     * @throws IllegalArgumentException if the given amount is negative.
+     */
+    public IntLongHashMap(int expected) {
+        if (expected < 0) {
+            throw new IllegalArgumentException("Capacity : " + expected);
+        }
+        int capacity = Integer.highestOneBit(
+                Math.max(DEFAULT_CAPACITY, (int) (expected / LOAD_FACTOR)) - 1)
+                << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the amount of keys in this map.
+     *
+     * @return The amount of keys in this map.
+     */
+    public int size() {
+        return occupied + (hasZero ? 1 : 0);
+    }
+
+    /**
+     * Returns {@code true} if this map contains no keys, {@code false}
+     * otherwise.
+     *
+     * @return {@code true} if this map is empty.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns {@code true} if this map contains the given key, {@code false}
+     * otherwise.
+     *
+     * @param key The key to find.
+     * @return {@code true} if this map contains the given key.
+     */
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZero : keys[slot(key)] == key;
+    }
+
+    /**
+     * Returns the value of the given key, or {@code 0} if it is not present.
+     *
+     * @param key The key whose value to return.
+     * @return The value of the given key, or {@code 0}.
+     */
+    public long get(int key) {
+        return getOrDefault(key, 0L);
+    }
+
+    /**
+     * Returns the value of the given key, or the given default if it is not
+     * present.
+     *
+     * @param key The key whose value to return.
+     * @param defaultValue The value to return if the key is not present.
+     * @return The value of the given key, or {@code defaultValue}.
+     */
+    public long getOrDefault(int key, long defaultValue) {
+        if (key == 0) {
+            return hasZero ? zeroValue : defaultValue;
+        }
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Adds one to the value of the given key, inserting it with value
+     * {@code 1} if it is not present.
+     *
+     * @param key The key to count.
+     */
+    public void increment(int key) {
+        add(key, 1L);
+    }
+
+    /**
+     * Adds the given amount to the value of the given key, inserting it with
+     * that value if it is not present.
+     *
+     * @param key The key whose value to add to.
+     * @param delta The amount to add.
+     * @return The new value of the given key.
+     */
+    public long add(int key, long delta) {
+        long value;
+        if (key == 0) {
+            value = hasZero ? zeroValue + delta : delta;
+            hasZero = true;
+            zeroValue = value;
+        }
+        else {
+            int slot = slot(key);
+            if (keys[slot] == key) {
+                value = values[slot] + delta;
+                values[slot] = value;
+            }
+            else {
+                value = delta;
+                keys[slot] = key;
+                values[slot] = value;
+                if (++occupied > limit) {
+                    allocate(keys.length << 1);
+                }
+            }
+        }
+        track(key, value, delta < 0);
+        return value;
+    }
+
+    /**
+     * Sets the value of the given key, inserting it if it is not present.
+     *
+     * @param key The key whose value to set.
+     * @param value The new value of the key.
+     */
+    public void put(int key, long value) {
+        add(key, containsKey(key) ? value - get(key) : value);
+    }
+
+    /**
+     * Adds the value of every key of the given map to the value of the same
+     * key in this one. This is the combiner of counts built in parallel.
+     *
+     * @param other The map whose values to add.
+     * @return This object.
+     */
+    public IntLongHashMap merge(IntLongHashMap other) {
+        other.forEach(this :: add);
+        return this;
+    }
+
+    /**
+     * Performs the given operation on every key in this map and its value, in
+     * no particular order.
+     *
+     * @param action The operation to perform.
+     */
+    public void forEach(EntryConsumer action) {
+        if (hasZero) {
+            action.accept(0, zeroValue);
+        }
+        int[] k = keys;
+        long[] v = values;
+        for (int slot = 0; slot < k.length; slot++) {
+            if (k[slot] != 0) {
+                action.accept(k[slot], v[slot]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys of this map in ascending order.
+     *
+     * @return An ascending array of the keys of this map.
+     */
+    public int[] keys() {
+        int[] result = new int[size()];
+        int i = 0;
+        if (hasZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the sum of the values in this map.
+     *
+     * @return The sum of the values in this map.
+     */
+    public long total() {
+        long total = hasZero ? zeroValue : 0L;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                total += values[slot];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns an {@code OptionalInt} containing a key with the greatest value,
+     * or an empty one if this map is empty. Ties are broken arbitrarily.
+     *
+     * @return An {@code OptionalInt} containing a most frequent key.
+     */
+    public OptionalInt mostFrequent() {
+        if (isEmpty()) {
+            return OptionalInt.empty();
+        }
+        if (maxStale) {
+            maxStale = false;
+            maxValue = Long.MIN_VALUE;
+            forEach((key, value) -> track(key, value, false));
+        }
+        return OptionalInt.of(maxKey);
+    }
+
+    /**
+     * Returns an {@code OptionalInt} containing a key with the least value,
+     * or an empty one if this map is empty. Ties are broken arbitrarily.
+     *
+     * @return An {@code OptionalInt} containing a least frequent key.
+     */
+    public OptionalInt leastFrequent() {
+        if (isEmpty()) {
+            return OptionalInt.empty();
+        }
+        int minKey = 0;
+        long minValue = hasZero ? zeroValue : Long.MAX_VALUE;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && values[slot] < minValue) {
+                minKey = keys[slot];
+                minValue = values[slot];
+            }
+        }
+        return OptionalInt.of(minKey);
+    }
+
+    /**
+     * Updates the tracked greatest value with the given new value of the
+     * given key.
+     *
+     * @param key The key whose value changed.
+     * @param value The new value of the key.
+     * @param decreased Whether the value of the key decreased.
+     */
+    private void track(int key, long value, boolean decreased) {
+        if (maxStale) {
+            return;
+        }
+        if (size() == 1 || value > maxValue) {
+            maxKey = key;
+            maxValue = value;
+        }
+        else if (decreased && key == maxKey) {
+            maxStale = true;
+        }
+    }
+
+    /**
+     * Returns the slot holding the given non-zero key, or the free slot it
+     * would be inserted into.
+     *
+     * @param key The key to find.
+     * @return The slot of the given key.
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = (int) Hashing.mix64(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Replaces the tables with ones of the given capacity, reinserting every
+     * key.
+     *
+     * @param capacity The new capacity, a power of two.
+     */
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        limit = (int) (capacity * LOAD_FACTOR);
+        if (oldKeys != null) {
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    int to = slot(oldKeys[slot]);
+                    keys[to] = oldKeys[slot];
+                    values[to] = oldValues[slot];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a {@code String} containing the keys of this map and their
+     * values, in ascending order of key.
+     *
+     * @return A {@code String} representation of this object.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int key : keys()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(get(key));
+        }
+        return sb.append('}').toString();
+    }
+
+}
@@ -0,0 +1,307 @@
+package util.primitive;
+
+import java.util.Arrays;
+
+/**
+ * The {@code IntSets} class contains utility methods for sets of integers
+ * encoded as ascending {@code int} arrays without duplicates, such as sets of
+ * identification numbers.
+ *
+ * <p> Every binary operation runs in time linear in the combined length of its
+ * arguments, and boxes nothing. Intersections, overlap counts and differences
+ * of arrays of very different lengths gallop through the longer array
+ * instead, taking time
+ * proportional to the length of the shorter one times the logarithm of the
+ * longer one.
+ *
+ * <p> Arguments are not validated; passing an array that is not ascending or
+ * that contains duplicates gives unspecified results. Results may be one of
+ * the given arrays, so neither should be modified afterwards.
+ *
+ * @author Oliver Abdulrahim
+ */
+public final class IntSets {
+
+    /**
+     * The shared empty set.
+     */
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * The minimum ratio of the lengths of two arrays above which operations
+     * on them gallop through the longer one instead of merging.
+     */
+    private static final int GALLOP_RATIO = 32;
+
+    /**
+     * Returns an ascending array containing the distinct values of the given
+     * array. The given array is not modified.
+     *
+     * @param values The values to include.
+     * @return A set of the given values.
+     */
+    public static int[] of(int... values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        int[] set = values.clone();
+        Arrays.sort(set);
+        int size = 1;
+        for (int i = 1; i < set.length; i++) {
+            if (set[i] != set[size - 1]) {
+                set[size++] = set[i];
+            }
+        }
+        return size == set.length ? set : Arrays.copyOf(set, size);
+    }
+
+    /**
+     * Returns {@code true} if the given set contains the given value,
+     * {@code false} otherwise.
+     *
+     * @param set The set to search.
+     * @param value The value to find.
+     * @return {@code true} if the given set contains the given value.
+     */
+    public static boolean contains(int[] set, int value) {
+        return Arrays.binarySearch(set, value) >= 0;
+    }
+
+    /**
+     * Returns the amount of values the given sets have in common.
+     *
+     * @param a The set to intersect with {@code b}.
+     * @param b The set to intersect with {@code a}.
+     * @return The size of the intersection of the given sets.
+     */
+    public static int overlap(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length == 0) {
+            return 0;
+        }
+        if (b.length / a.length >= GALLOP_RATIO) {
+            return gallop(a, b, null);
+        }
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            }
+            else if (a[i] > b[j]) {
+                j++;
+            }
+            else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a set containing the values the given sets have in common.
+     *
+     * @param a The set to intersect with {@code b}.
+     * @param b The set to intersect with {@code a}.
+     * @return The intersection of the given sets.
+     */
+    public static int[] intersection(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a.length == 0) {
+            return EMPTY;
+        }
+        int[] result = new int[a.length];
+        int size;
+        if (b.length / a.length >= GALLOP_RATIO) {
+            size = gallop(a, b, result);
+        }
+        else {
+            size = 0;
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) {
+                    i++;
+                }
+                else if (a[i] > b[j]) {
+                    j++;
+                }
+                else {
+                    result[size++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return trim(result, size);
+    }
+
+    /**
+     * Returns a set containing every value in either of the given sets.
+     *
+     * @param a The set to unite with {@code b}.
+     * @param b The set to unite with {@code a}.
+     * @return The union of the given sets.
+     */
+    public static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[size++] = a[i++];
+            }
+            else if (a[i] > b[j]) {
+                result[size++] = b[j++];
+            }
+            else {
+                result[size++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[size++] = a[i++];
+        }
+        while (j < b.length) {
+            result[size++] = b[j++];
+        }
+        return trim(result, size);
+    }
+
+    /**
+     * Returns a set containing the values of {@code a} that are not in
+     * {@code b}.
+     *
+     * @param a The set to subtract from.
+     * @param b The set to subtract.
+     * @return The difference of the given sets.
+     */
+    public static int[] difference(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length];
+        int size = 0;
+        int j = 0;
+        boolean gallop = b.length / a.length >= GALLOP_RATIO;
+        for (int value : a) {
+            if (gallop) {
+                j = advance(b, j, value);
+            }
+            else {
+                while (j < b.length && b[j] < value) {
+                    j++;
+                }
+            }
+            if (j == b.length || b[j] != value) {
+                result[size++] = value;
+            }
+        }
+        return trim(result, size);
+    }
+
+    /**
+     * Returns {@code true} if every value of {@code a} is also in {@code b},
+     * {@code false} otherwise.
+     *
+     * @param a The set to test for inclusion in {@code b}.
+     * @param b The set to test against.
+     * @return {@code true} if {@code a} is a subset of {@code b}.
+     */
+    public static boolean isSubset(int[] a, int[] b) {
+        return a.length <= b.length && overlap(a, b) == a.length;
+    }
+
+    /**
+     * Finds the values of the shorter set {@code a} in the longer set
+     * {@code b} by exponential, then binary, search from the position of the
+     * previous match, storing the common values in {@code result} unless it
+     * is {@code null}.
+     *
+     * @param a The shorter set.
+     * @param b The longer set.
+     * @param result The array to store the common values in, or {@code null}
+     *        to only count them.
+     * @return The amount of common values.
+     */
+    private static int gallop(int[] a, int[] b, int[] result) {
+        int count = 0;
+        int low = 0;
+        for (int value : a) {
+            low = advance(b, low, value);
+            if (low == b.length) {
+                break;
+            }
+            if (b[low] == value) {
+                if (result != null) {
+                    result[count] = value;
+                }
+                count++;
+                low++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the position of the first value of the given set, at or after
+     * the given position, that is not less than the given value, found by
+     * exponential, then binary, search.
+     *
+     * @param b The set to search.
+     * @param low The position to search from.
+     * @param value The value to search for.
+     * @return The position of the first value of {@code b} from {@code low}
+     *         not less than {@code value}, or the length of {@code b} if
+     *         there is none.
+     */
+    private static int advance(int[] b, int low, int value) {
+        int step = 1;
+        int high = low;
+        while (high < b.length && b[high] < value) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int found = Arrays.binarySearch(
+                b, low, Math.min(high + 1, b.length), value);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    /**
+     * Returns the given array if its length is the given size, or a copy of
+     * its first {@code size} values otherwise.
+     *
+     * @param array The array to trim.
+     * @param size The amount of values to keep.
+     * @return An array of the first {@code size} values of the given one.
+     */
+    private static int[] trim(int[] array, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private IntSets() {
+        throw new InstantiationError("No instances allowed, pal!");
+    }
+
+}
@@ -0,0 +1,251 @@
+package util.sketch;
+
+import util.primitive.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * A Count-Min sketch, estimating how often each key occurs in a stream too
+ * large to count exactly, in memory fixed when the sketch is created.
+ *
+ * <p> The sketch holds {@code depth} rows of {@code width} counters. Adding a
+ * key increments one counter in each row, chosen by an independent hash of
+ * the key; the estimate of a key is the least of its counters. An estimate is
+ * never less than the true count, and with probability at least
+ * {@code 1 - delta} exceeds it by at most {@code epsilon * total()}, where
+ * {@code width = ceil(e / epsilon)} and {@code depth = ceil(ln(1 / delta))}.
+ *
+ * <p> Sketches of the same dimensions and seed can be
+ * {@link #merge(CountMinSketch) merged}, giving the sketch of the
+ * concatenation of their inputs, so partitions of a stream can be sketched
+ * separately or in parallel.
+ *
+ * <p> Keys are {@code long} values; objects are sketched by their hash code,
+ * so that an {@code Integer} and the {@code int} it holds are the same key.
+ *
+ * @implSpec This class is mutable, and therefore not thread-safe!
+ * @author Oliver Abdulrahim
+ */
+public final class CountMinSketch {
+
+    /**
+     * The default seed the row hashes are derived from.
+     */
+    public static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+    /**
+     * The amount of counters in each row.
+     */
+    private final int width;
+
+    /**
+     * The amount of rows.
+     */
+    private final int depth;
+
+    /**
+     * The seed the row hashes are derived from.
+     */
+    private final long seed;
+
+    /**
+     * The seed of the hash of each row.
+     */
+    private final long[] seeds;
+
+    /**
+     * The counters, row after row.
+     */
+    private final long[] counters;
+
+    /**
+     * The sum of every count added.
+     */
+    private long total;
+
+    /**
+     * Constructs an empty {@code CountMinSketch} of the given dimensions.
+     *
+     * @param width The amount of counters in each row.
+     * @param depth The amount of rows.
+     * @param seed The seed the row hashes are derived from.
+     * @throws IllegalArgumentException if either dimension is not positive,
+     *         or the sketch would be too large.
+     */
+    public CountMinSketch(int width, int depth, long seed) {
+        if (width <= 0 || depth <= 0
+                || (long) width * depth > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(
+                    "Width : " + width + ", depth : " + depth);
+        }
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.seeds = Hashing.seeds(seed, depth);
+        this.counters = new long[width * depth];
+    }
+
+    /**
+     * Returns an empty {@code CountMinSketch} whose estimates exceed the true
+     * counts by at most {@code epsilon * total()} with probability at least
+     * {@code 1 - delta}.
+     *
+     * @param epsilon The error bound, relative to the total count.
+     * @param delta The probability of exceeding the error bound.
+     * @return An empty {@code CountMinSketch} with the given guarantees.
+     * @throws IllegalArgumentException if either argument is not in
+     *         {@code (0, 1)}.
+     */
+    public static CountMinSketch withError(double epsilon, double delta) {
+        if (!(epsilon > 0.0 && epsilon < 1.0 && delta > 0.0 && delta < 1.0)) {
+            throw new IllegalArgumentException(
+                    "Epsilon : " + epsilon + ", delta : " + delta);
+        }
+        return new CountMinSketch(
+                (int) Math.ceil(Math.E / epsilon),
+                (int) Math.ceil(Math.log(1.0 / delta)),
+                DEFAULT_SEED);
+    }
+
+    /**
+     * Returns the amount of counters in each row of this sketch.
+     *
+     * @return The width of this sketch.
+     */
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Returns the amount of rows of this sketch.
+     *
+     * @return The depth of this sketch.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the sum of every count added to this sketch.
+     *
+     * @return The total count of this sketch.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Returns the amount by which an estimate exceeds the true count with
+     * probability at least {@code 1 - delta}, where {@code delta} is
+     * {@code exp(-depth())}.
+     *
+     * @return The error bound of the estimates of this sketch.
+     */
+    public double errorBound() {
+        return Math.E / width * total;
+    }
+
+    /**
+     * Adds one occurrence of the given key.
+     *
+     * @param key The key to count.
+     */
+    public void add(long key) {
+        add(key, 1L);
+    }
+
+    /**
+     * Adds one occurrence of the given object, keyed by its hash code.
+     *
+     * @param obj The object to count.
+     */
+    public void add(Object obj) {
+        add(obj.hashCode(), 1L);
+    }
+
+    /**
+     * Adds the given amount of occurrences of the given key.
+     *
+     * @param key The key to count.
+     * @param count The amount of occurrences to add.
+     * @throws IllegalArgumentException if the given count is negative.
+     */
+    public void add(long key, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count : " + count);
+        }
+        for (int row = 0; row < depth; row++) {
+            counters[row * width + column(row, key)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * Returns the estimated amount of occurrences of the given key, which is
+     * never less than the true amount.
+     *
+     * @param key The key whose count to estimate.
+     * @return The estimated count of the given key.
+     */
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate,
+                    counters[row * width + column(row, key)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the estimated amount of occurrences of the given object, keyed
+     * by its hash code.
+     *
+     * @param obj The object whose count to estimate.
+     * @return The estimated count of the given object.
+     */
+    public long estimate(Object obj) {
+        return estimate(obj.hashCode());
+    }
+
+    /**
+     * Adds the counts of the given sketch to this one, which afterwards
+     * sketches the inputs of both.
+     *
+     * @param other The sketch to merge into this one.
+     * @return This object.
+     * @throws IllegalArgumentException if the given sketch differs from this
+     *         one in dimensions or seed.
+     */
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth
+                || other.seed != seed) {
+            throw new IllegalArgumentException("Incompatible sketches");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+        return this;
+    }
+
+    /**
+     * Removes every count from this sketch.
+     */
+    public void clear() {
+        Arrays.fill(counters, 0L);
+        total = 0L;
+    }
+
+    /**
+     * Returns the column of the given key in the given row.
+     *
+     * @param row The row.
+     * @param key The key.
+     * @return The column of the key in the row.
+     */
+    private int column(int row, long key) {
+        long h = Hashing.mix64(key ^ seeds[row]);
+        return (int) ((h >>> 1) % width);
+    }
+
+}
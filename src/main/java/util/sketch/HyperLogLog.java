@@ -0,0 +1,196 @@
+package util.sketch;
+
+import util.primitive.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch, estimating how many distinct keys occur in a stream
+ * in memory fixed when the sketch is created, one byte per register.
+ *
+ * <p> Each key is hashed to 64 bits. The leading bits of the hash select a
+ * register, which keeps the greatest position of the first set bit among the
+ * remaining bits of every hash it has received. The harmonic mean of the
+ * registers estimates the amount of distinct keys with a standard error of
+ * about {@code 1.04 / sqrt(registers)}: 1.6% for the default
+ * {@value #DEFAULT_REGISTERS} registers. Small cardinalities are estimated by
+ * linear counting over the empty registers instead, which is more accurate.
+ *
+ * <p> Sketches with the same amount of registers can be
+ * {@link #merge(HyperLogLog) merged}, giving the sketch of the union of their
+ * inputs, so that partitions or cohorts can be sketched separately and
+ * combined.
+ *
+ * <p> Keys are {@code long} values; objects are sketched by their hash code,
+ * so that an {@code Integer} and the {@code int} it holds are the same key.
+ *
+ * @implSpec This class is mutable, and therefore not thread-safe!
+ * @author Oliver Abdulrahim
+ */
+public final class HyperLogLog {
+
+    /**
+     * The default amount of registers.
+     */
+    public static final int DEFAULT_REGISTERS = 4096;
+
+    /**
+     * The least amount of registers.
+     */
+    private static final int MIN_REGISTERS = 16;
+
+    /**
+     * The greatest amount of registers.
+     */
+    private static final int MAX_REGISTERS = 1 << 18;
+
+    /**
+     * The registers, each holding the greatest rank it has received.
+     */
+    private final byte[] registers;
+
+    /**
+     * The amount of hash bits selecting a register.
+     */
+    private final int precision;
+
+    /**
+     * Constructs an empty {@code HyperLogLog} with
+     * {@value #DEFAULT_REGISTERS} registers.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_REGISTERS);
+    }
+
+    /**
+     * Constructs an empty {@code HyperLogLog} with the given amount of
+     * registers. More registers give more precise estimates.
+     *
+     * @param registers The amount of registers, a power of two between
+     *        {@code 16} and {@code 262144}.
+     * @throws IllegalArgumentException if the given amount is not a power of
+     *         two in range.
+     */
+    public HyperLogLog(int registers) {
+        if (registers < MIN_REGISTERS || registers > MAX_REGISTERS
+                || Integer.bitCount(registers) != 1) {
+            throw new IllegalArgumentException("Registers : " + registers);
+        }
+        this.registers = new byte[registers];
+        this.precision = Integer.numberOfTrailingZeros(registers);
+    }
+
+    /**
+     * Returns the amount of registers of this sketch.
+     *
+     * @return The amount of registers.
+     */
+    public int registers() {
+        return registers.length;
+    }
+
+    /**
+     * Returns the standard error of the estimates of this sketch, relative to
+     * the true cardinality.
+     *
+     * @return The relative standard error of this sketch.
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Adds the given key to this sketch.
+     *
+     * @param key The key to add.
+     */
+    public void add(long key) {
+        long hash = Hashing.mix64(key);
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Adds the given object to this sketch, keyed by its hash code.
+     *
+     * @param obj The object to add.
+     */
+    public void add(Object obj) {
+        add(obj.hashCode());
+    }
+
+    /**
+     * Returns the estimated amount of distinct keys added to this sketch.
+     *
+     * @return The estimated cardinality of this sketch.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += Math.scalb(1.0, -rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Adds the keys of the given sketch to this one, which afterwards
+     * sketches the union of the inputs of both.
+     *
+     * @param other The sketch to merge into this one.
+     * @return This object.
+     * @throws IllegalArgumentException if the given sketch has a different
+     *         amount of registers.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.registers.length != registers.length) {
+            throw new IllegalArgumentException(
+                    "Registers : " + other.registers.length);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Removes every key from this sketch.
+     */
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    /**
+     * Returns the bias correction constant for the given amount of registers.
+     *
+     * @param m The amount of registers.
+     * @return The bias correction constant.
+     */
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / m);
+        }
+    }
+
+}
@@ -0,0 +1,403 @@
+package util.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The SpaceSaving summary, tracking the most frequent elements of a stream
+ * too large to count exactly, in memory fixed when the summary is created.
+ *
+ * <p> The summary monitors at most {@code capacity} elements, each with a
+ * count. An element already monitored has its count incremented. A new
+ * element is monitored outright while there is room; otherwise it replaces
+ * the monitored element with the least count, inheriting that count, which
+ * is recorded as its maximum overestimation.
+ *
+ * <p> The count of a monitored element never underestimates its true count,
+ * and overestimates it by at most its {@linkplain Counter#error() error},
+ * which is at most {@code total() / capacity}. Every element occurring more
+ * than {@code total() / capacity} times is monitored.
+ *
+ * <p> Summaries of the same capacity can be {@link #merge(SpaceSaving)
+ * merged}, preserving these guarantees for the concatenation of their
+ * inputs, so partitions of a stream can be summarised separately or in
+ * parallel.
+ *
+ * @param <T> The type of the counted elements.
+ * @implSpec This class is mutable, and therefore not thread-safe!
+ * @author Oliver Abdulrahim
+ */
+public final class SpaceSaving<T> {
+
+    /**
+     * The maximum amount of monitored elements.
+     */
+    private final int capacity;
+
+    /**
+     * The counter of each monitored element.
+     */
+    private final Map<T, Counter<T>> counters;
+
+    /**
+     * The counters, arranged as a min-heap ordered by count.
+     */
+    private final Counter<T>[] heap;
+
+    /**
+     * The amount of monitored elements.
+     */
+    private int size;
+
+    /**
+     * The sum of every count added.
+     */
+    private long total;
+
+    /**
+     * Constructs an empty {@code SpaceSaving} monitoring at most the given
+     * amount of elements.
+     *
+     * @param capacity The maximum amount of monitored elements.
+     * @throws IllegalArgumentException if the given capacity is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity : " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = (Counter<T>[]) new Counter<?>[capacity];
+    }
+
+    /**
+     * Returns the maximum amount of monitored elements.
+     *
+     * @return The capacity of this summary.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the amount of monitored elements.
+     *
+     * @return The amount of monitored elements.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sum of every count added to this summary.
+     *
+     * @return The total count of this summary.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Returns the greatest amount by which the count of any monitored element
+     * may exceed its true count.
+     *
+     * @return The error bound of this summary.
+     */
+    public long errorBound() {
+        return size < capacity ? 0L : heap[0].count;
+    }
+
+    /**
+     * Adds one occurrence of the given element.
+     *
+     * @param t The element to count.
+     * @throws NullPointerException if the given element is {@code null}.
+     */
+    public void offer(T t) {
+        offer(t, 1L);
+    }
+
+    /**
+     * Adds the given amount of occurrences of the given element.
+     *
+     * @param t The element to count.
+     * @param count The amount of occurrences to add.
+     * @throws NullPointerException if the given element is {@code null}.
+     * @throws IllegalArgumentException if the given count is negative.
+     */
+    public void offer(T t, long count) {
+        Objects.requireNonNull(t);
+        if (count < 0) {
+            throw new IllegalArgumentException("Count : " + count);
+        }
+        total += count;
+        Counter<T> counter = counters.get(t);
+        if (counter != null) {
+            counter.count += count;
+            siftDown(counter.slot);
+        }
+        else if (size < capacity) {
+            counter = new Counter<>(t, count, 0L);
+            counters.put(t, counter);
+            counter.slot = size;
+            heap[size] = counter;
+            siftUp(size++);
+        }
+        else {
+            counter = heap[0];
+            counters.remove(counter.element);
+            counter.element = t;
+            counter.error = counter.count;
+            counter.count += count;
+            counters.put(t, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the estimated amount of occurrences of the given element: its
+     * count if it is monitored, or otherwise the greatest count it could have
+     * without being monitored.
+     *
+     * @param t The element whose count to estimate.
+     * @return The estimated count of the given element.
+     */
+    public long estimate(T t) {
+        Counter<T> counter = counters.get(t);
+        return counter != null ? counter.count : errorBound();
+    }
+
+    /**
+     * Returns the counters of at most the given amount of monitored elements
+     * with the greatest counts, greatest first.
+     *
+     * @param k The maximum amount of counters to return.
+     * @return A {@code List} of the counters of the most frequent elements.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public List<Counter<T>> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k : " + k);
+        }
+        List<Counter<T>> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter<T> c = heap[i];
+            top.add(new Counter<>(c.element, c.count, c.error));
+        }
+        top.sort(Comparator.comparingLong((Counter<T> c) -> c.count)
+                .reversed());
+        return top.size() > k ? new ArrayList<>(top.subList(0, k)) : top;
+    }
+
+    /**
+     * Combines the given summary into this one, which afterwards summarises
+     * the inputs of both.
+     *
+     * <p> Every element monitored by either summary is given the sum of its
+     * counts in both, where an element absent from a full summary counts as
+     * that summary's least count. The elements with the greatest combined
+     * counts are kept.
+     *
+     * @param other The summary to merge into this one.
+     * @return This object.
+     * @throws IllegalArgumentException if the given summary differs from
+     *         this one in capacity.
+     */
+    public SpaceSaving<T> merge(SpaceSaving<? extends T> other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException(
+                    "Capacity : " + other.capacity);
+        }
+        long thisMin = errorBound();
+        long otherMin = other.errorBound();
+        Map<T, Counter<T>> combined = new HashMap<>(capacity * 4);
+        for (int i = 0; i < size; i++) {
+            Counter<T> c = heap[i];
+            Counter<? extends T> o = other.counters.get(c.element);
+            combined.put(c.element, o != null
+                    ? new Counter<>(c.element, c.count + o.count,
+                            c.error + o.error)
+                    : new Counter<>(c.element, c.count + otherMin,
+                            c.error + otherMin));
+        }
+        for (int i = 0; i < other.size; i++) {
+            Counter<? extends T> o = other.heap[i];
+            if (!combined.containsKey(o.element)) {
+                combined.put(o.element, new Counter<>(o.element,
+                        o.count + thisMin, o.error + thisMin));
+            }
+        }
+
+        List<Counter<T>> ordered = new ArrayList<>(combined.values());
+        ordered.sort(Comparator.comparingLong((Counter<T> c) -> c.count)
+                .reversed());
+        long mergedTotal = total + other.total;
+        counters.clear();
+        Arrays.fill(heap, null);
+        size = 0;
+        for (int i = 0; i < ordered.size() && i < capacity; i++) {
+            Counter<T> c = ordered.get(i);
+            counters.put(c.element, c);
+            c.slot = size;
+            heap[size] = c;
+            siftUp(size++);
+        }
+        total = mergedTotal;
+        return this;
+    }
+
+    /**
+     * Moves the counter at the given heap position towards the root until
+     * the heap property is restored.
+     *
+     * @param i The position of the counter to move.
+     */
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[i].count >= heap[parent].count) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    /**
+     * Moves the counter at the given heap position away from the root until
+     * the heap property is restored.
+     *
+     * @param i The position of the counter to move.
+     */
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int child = left + 1 < size
+                    && heap[left + 1].count < heap[left].count
+                    ? left + 1
+                    : left;
+            if (heap[i].count <= heap[child].count) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    /**
+     * Swaps the counters at the given heap positions.
+     *
+     * @param i The position of the first counter.
+     * @param j The position of the second counter.
+     */
+    private void swap(int i, int j) {
+        Counter<T> c = heap[i];
+        heap[i] = heap[j];
+        heap[j] = c;
+        heap[i].slot = i;
+        heap[j].slot = j;
+    }
+
+    /**
+     * The count of a monitored element, together with the greatest amount by
+     * which it may exceed the true count.
+     *
+     * @param <T> The type of the element.
+     */
+    public static final class Counter<T> {
+
+        /**
+         * The monitored element.
+         */
+        private T element;
+
+        /**
+         * The count of the element.
+         */
+        private long count;
+
+        /**
+         * The greatest amount by which the count may exceed the true count.
+         */
+        private long error;
+
+        /**
+         * The position of this counter in the heap of its summary.
+         */
+        private int slot;
+
+        /**
+         * Constructs a {@code Counter} with the given arguments.
+         *
+         * @param element The monitored element.
+         * @param count The count of the element.
+         * @param error The greatest overestimation of the count.
+         */
+        private Counter(T element, long count, long error) {
+            this.element = element;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * Returns the monitored element.
+         *
+         * @return The monitored element.
+         */
+        public T element() {
+            return element;
+        }
+
+        /**
+         * Returns the count of the element, which is never less than its
+         * true count.
+         *
+         * @return The count of the element.
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Returns the greatest amount by which the count may exceed the true
+         * count.
+         *
+         * @return The error of the count.
+         */
+        public long error() {
+            return error;
+        }
+
+        /**
+         * Returns the amount of occurrences of the element that are certain,
+         * which is never more than its true count.
+         *
+         * @return The guaranteed count of the element.
+         */
+        public long guaranteed() {
+            return count - error;
+        }
+
+        /**
+         * Returns a {@code String} containing the element, its count and the
+         * error of the count.
+         *
+         * @return A {@code String} representation of this object.
+         */
+        @Override
+        public String toString() {
+            return element + "=" + count + " (error " + error + ")";
+        }
+
+    }
+
+}
@@ -1,18 +1,31 @@
 package util.stream;
 
+import util.sketch.HyperLogLog;
+
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Represents an object whose contents may be streamed. This class provides a
  * the best general-case implementation of basic {@code Stream} operations.
  *
+ * <p> Every operation also has a parallel variant, which runs on a given
+ * {@code ForkJoinPool} over the {@link #spliterator()} of this object.
+ * Implementations whose contents are held in memory should override that
+ * method to return a {@code SIZED} and {@code SUBSIZED} spliterator, which
+ * splits evenly across threads.
+ *
  * @param <T> The type of object in the {@code Stream}.
  * @see Stream
  * @author Oliver Abdulrahim
@@ -27,6 +40,50 @@ public interface Streamable<T> {
      */
     Stream<T> all();
 
+    /**
+     * Returns a {@code Spliterator} over all elements, from which parallel
+     * streams are built.
+     *
+     * @return A {@code Spliterator} over all elements.
+     * @implSpec The default implementation returns the spliterator of
+     *           {@link #all()}, which may split poorly.
+     */
+    default Spliterator<T> spliterator() {
+        return all().spliterator();
+    }
+
+    /**
+     * Returns a parallel {@link Stream Stream} containing all elements, built
+     * from the {@link #spliterator()} of this object.
+     *
+     * @return A parallel {@code Stream} of all elements.
+     */
+    default Stream<T> parallel() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Applies the given operation to a parallel {@code Stream} of all
+     * elements, running the parallel tasks of the operation on the given
+     * {@code ForkJoinPool} rather than the common pool.
+     *
+     * @param pool The pool to run the operation on.
+     * @param operation The operation to apply to the parallel stream.
+     * @param <R> The type of the result of the operation.
+     * @return The result of the operation.
+     * @throws NullPointerException if any of the given arguments is
+     *         {@code null}.
+     */
+    default <R> R parallel(
+            ForkJoinPool pool,
+            Function<? super Stream<T>, ? extends R> operation)
+    {
+        Objects.requireNonNull(operation);
+        return pool
+                .submit(() -> operation.apply(parallel()))
+                .join();
+    }
+
     /**
      * Returns a {@code Map} that associates keys of arbitrary type with a list
      * of all values that match that key using the given classifying function.
@@ -41,6 +98,44 @@ public interface Streamable<T> {
                 .collect(Collectors.groupingBy(classifier));
     }
 
+    /**
+     * Returns a {@code ConcurrentMap} that associates keys of arbitrary type
+     * with a list of all values that match that key using the given
+     * classifying function, grouped in parallel on the common
+     * {@code ForkJoinPool}. The order of each list is not guaranteed.
+     *
+     * @param classifier The function that maps input to keys.
+     * @param <K> The type of the keys.
+     * @return A {@code ConcurrentMap} that associates keys to a list of
+     *         values, partitioned by the given function.
+     */
+    default <K> ConcurrentMap<K, List<T>> groupByConcurrent(
+            Function<? super T, K> classifier)
+    {
+        return parallel()
+                .collect(Collectors.groupingByConcurrent(classifier));
+    }
+
+    /**
+     * Returns a {@code ConcurrentMap} that associates keys of arbitrary type
+     * with a list of all values that match that key using the given
+     * classifying function, grouped in parallel on the given
+     * {@code ForkJoinPool}. The order of each list is not guaranteed.
+     *
+     * @param classifier The function that maps input to keys.
+     * @param pool The pool to group on.
+     * @param <K> The type of the keys.
+     * @return A {@code ConcurrentMap} that associates keys to a list of
+     *         values, partitioned by the given function.
+     */
+    default <K> ConcurrentMap<K, List<T>> groupByConcurrent(
+            Function<? super T, K> classifier,
+            ForkJoinPool pool)
+    {
+        return parallel(pool, s -> s
+                .collect(Collectors.groupingByConcurrent(classifier)));
+    }
+
     /**
      * Returns an {@code Optional} containing the value defined by the given
      * {@code Comparator} as the minimal element, or an empty one if there is no
@@ -54,6 +149,22 @@ public interface Streamable<T> {
                 .collect(Collectors.minBy(comparator));
     }
 
+    /**
+     * Returns an {@code Optional} containing the value defined by the given
+     * {@code Comparator} as the minimal element, or an empty one if there is no
+     * such element, searching in parallel on the given {@code ForkJoinPool}.
+     *
+     * @param comparator The comparison function.
+     * @param pool The pool to search on.
+     * @return An {@code Optional} containing the minimal value.
+     */
+    default Optional<T> minBy(
+            Comparator<? super T> comparator,
+            ForkJoinPool pool)
+    {
+        return parallel(pool, s -> s.min(comparator));
+    }
+
     /**
      * Returns an {@code Optional} containing the value defined by the given
      * {@code Comparator} as the maximal element, or an empty one if there is no
@@ -67,6 +178,22 @@ public interface Streamable<T> {
                 .collect(Collectors.maxBy(comparator));
     }
 
+    /**
+     * Returns an {@code Optional} containing the value defined by the given
+     * {@code Comparator} as the maximal element, or an empty one if there is no
+     * such element, searching in parallel on the given {@code ForkJoinPool}.
+     *
+     * @param comparator The comparison function.
+     * @param pool The pool to search on.
+     * @return An {@code Optional} containing the maximal value.
+     */
+    default Optional<T> maxBy(
+            Comparator<? super T> comparator,
+            ForkJoinPool pool)
+    {
+        return parallel(pool, s -> s.max(comparator));
+    }
+
     /**
      * Returns an {@code Optional} containing the element occurring most
      * minimally, or an empty one if there is no such element.
@@ -91,6 +218,48 @@ public interface Streamable<T> {
                 .max(all());
     }
 
+    /**
+     * Returns the estimated amount of distinct elements, using a
+     * {@link HyperLogLog} sketch with the default amount of registers.
+     *
+     * @return The estimated amount of distinct elements.
+     */
+    default long countDistinct() {
+        return distinct(HyperLogLog.DEFAULT_REGISTERS).estimate();
+    }
+
+    /**
+     * Returns a {@code HyperLogLog} sketch of the distinct elements, with the
+     * given amount of registers. Sketches of different objects with the same
+     * amount of registers can be merged.
+     *
+     * @param registers The amount of registers of the sketch.
+     * @return A {@code HyperLogLog} sketch of the distinct elements.
+     * @throws IllegalArgumentException if the amount of registers is invalid.
+     */
+    default HyperLogLog distinct(int registers) {
+        return Streams
+                .distinct(all(), registers);
+    }
+
+    /**
+     * Returns a {@code HyperLogLog} sketch of the distinct values produced by
+     * applying the given flat-mapping {@code Function} to every element, with
+     * the given amount of registers.
+     *
+     * @param mapper The function producing the values of each element.
+     * @param registers The amount of registers of the sketch.
+     * @return A {@code HyperLogLog} sketch of the distinct mapped values.
+     * @throws IllegalArgumentException if the amount of registers is invalid.
+     */
+    default HyperLogLog distinct(
+            Function<? super T, ? extends Stream<?>> mapper,
+            int registers)
+    {
+        return Streams
+                .distinct(all().flatMap(mapper), registers);
+    }
+
     /**
      * Returns a count of all elements that match the given {@code Predicate}.
      *
@@ -104,4 +273,19 @@ public interface Streamable<T> {
                 .collect(Collectors.counting());
     }
 
+    /**
+     * Returns a count of all elements that match the given {@code Predicate},
+     * counted in parallel on the given {@code ForkJoinPool}.
+     *
+     * @param counter The {@code Predicate} to apply to each element.
+     * @param pool The pool to count on.
+     * @return A value representing the amount of elements that match the given
+     *         {@code Predicate}.
+     */
+    default long counting(Predicate<? super T> counter, ForkJoinPool pool) {
+        return parallel(pool, s -> s
+                .filter(counter)
+                .count());
+    }
+
 }
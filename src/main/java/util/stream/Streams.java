@@ -1,14 +1,22 @@
 package util.stream;
 
+import util.primitive.IntLongHashMap;
+import util.sketch.CountMinSketch;
+import util.sketch.HyperLogLog;
+import util.sketch.SpaceSaving;
+
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -46,17 +54,22 @@ public final class Streams {
      *         less than, equal to, or greater than {@code s2}, respectively.
      */
     public static long compare(Stream<?> s1, Stream<?> s2) {
+        // Counting s2 once makes this linear, rather than scanning s2 for
+        // every element of s1.
+        Map<?, Long> frequencies = occurrences(s2);
         return s1
-                .reduce(s1.count(),
-                        (accumulator, obj) -> accumulator + frequency(s2, obj),
-                        Long :: sum
-                );
+                .mapToLong(obj -> 1 + frequencies.getOrDefault(obj, 0L))
+                .sum();
     }
 
     /**
      * Returns a count of the elements in the specified {@code Collection} that
      * equal the given object.
      *
+     * <p> A {@code HashSet}, which holds each equal element at most once, is
+     * answered by a single lookup. Other sets, such as a {@code TreeSet} with
+     * a comparator inconsistent with equals, are counted element by element.
+     *
      * @param c The {@code Collection} in which to determine the frequency of
      *        the given object.
      * @param obj The object whose frequency to test.
@@ -64,6 +77,9 @@ public final class Streams {
      *         the given {@code Collection}.
      */
     public static long frequency(Collection<?> c, Object obj) {
+        if (c instanceof HashSet) {
+            return c.contains(obj) ? 1 : 0;
+        }
         return frequency(c.stream(), obj);
     }
 
@@ -78,7 +94,7 @@ public final class Streams {
      *         the given {@code Stream}.
      */
     public static long frequency(Stream<?> s, Object obj) {
-        return s.map(o -> o.equals(obj)).count();
+        return s.filter(o -> o.equals(obj)).count();
     }
 
     /**
@@ -162,8 +178,9 @@ public final class Streams {
      *         {@code Stream}s.
      */
     public static <T> Set<T> intersection(Stream<T> a, Stream<T> b) {
+        Set<T> s = b.collect(Collectors.toSet());
         return a
-                .filter(t -> contains(b, t))
+                .filter(s :: contains)
                 .collect(Collectors.toSet());
     }
 
@@ -224,12 +241,156 @@ public final class Streams {
      */
     public static <T> Map<T, Long> occurrences(Stream<? extends T> s) {
         return s
+                .map(Function.<T>identity())
                 .collect(Collectors.groupingBy(
                         Function.identity(),
                         Collectors.counting())
                 );
     }
 
+    /**
+     * Returns an {@code OptionalInt} containing the value occurring least
+     * often in the given {@code IntStream}, or an empty one if there is no
+     * such element.
+     *
+     * @param s The {@code IntStream} containing the element to find.
+     * @return An {@code OptionalInt} containing the value in the given
+     *         {@code IntStream} occurring most minimally.
+     * @see IntLongHashMap#leastFrequent()
+     */
+    public static OptionalInt min(IntStream s) {
+        return occurrences(s).leastFrequent();
+    }
+
+    /**
+     * Returns an {@code OptionalInt} containing the value occurring most often
+     * in the given {@code IntStream}, or an empty one if there is no such
+     * element.
+     *
+     * @param s The {@code IntStream} containing the element to find.
+     * @return An {@code OptionalInt} containing the value in the given
+     *         {@code IntStream} occurring most maximally.
+     * @see IntLongHashMap#mostFrequent()
+     */
+    public static OptionalInt max(IntStream s) {
+        return occurrences(s).mostFrequent();
+    }
+
+    /**
+     * Returns an {@code IntLongHashMap} associating each value in the given
+     * {@code IntStream} with the amount of times it occurs, without boxing
+     * either. Parallel streams count each part separately, then merge the
+     * counts.
+     *
+     * @param s The {@code IntStream} whose elements to count.
+     * @return An {@code IntLongHashMap} associating values with the amount of
+     *         times they occur in the given {@code IntStream}.
+     */
+    public static IntLongHashMap occurrences(IntStream s) {
+        return s.collect(
+                IntLongHashMap :: new,
+                IntLongHashMap :: increment,
+                IntLongHashMap :: merge
+        );
+    }
+
+    /**
+     * Returns a {@code CountMinSketch} of the elements of the given
+     * {@code Stream}, whose estimates exceed the true counts by at most
+     * {@code epsilon} times the amount of elements with probability at least
+     * {@code 1 - delta}. This is the fixed-memory counterpart of
+     * {@link #occurrences(Stream)}. Parallel streams sketch each part
+     * separately, then merge the sketches.
+     *
+     * @param s The {@code Stream} whose elements to count.
+     * @param epsilon The error bound, relative to the amount of elements.
+     * @param delta The probability of exceeding the error bound.
+     * @return A {@code CountMinSketch} of the elements of the given
+     *         {@code Stream}.
+     * @throws IllegalArgumentException if either bound is not in
+     *         {@code (0, 1)}.
+     * @see CountMinSketch#withError(double, double)
+     */
+    public static CountMinSketch occurrences(
+            Stream<?> s,
+            double epsilon,
+            double delta)
+    {
+        return s.collect(
+                () -> CountMinSketch.withError(epsilon, delta),
+                CountMinSketch :: add,
+                CountMinSketch :: merge
+        );
+    }
+
+    /**
+     * Returns a {@code SpaceSaving} summary of the most frequent elements of
+     * the given {@code Stream}, monitoring at most the given amount of them.
+     * This is the fixed-memory counterpart of {@link #max(Stream)}: every
+     * element making up more than {@code 1 / capacity} of the stream is
+     * monitored. Parallel streams summarise each part separately, then merge
+     * the summaries.
+     *
+     * @param s The {@code Stream} whose most frequent elements to find.
+     * @param capacity The maximum amount of monitored elements.
+     * @param <T> The type of the elements.
+     * @return A {@code SpaceSaving} summary of the given {@code Stream}.
+     * @throws IllegalArgumentException if the given capacity is not positive.
+     */
+    public static <T> SpaceSaving<T> heavyHitters(
+            Stream<? extends T> s,
+            int capacity)
+    {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity : " + capacity);
+        }
+        return s.collect(
+                () -> new SpaceSaving<T>(capacity),
+                SpaceSaving :: offer,
+                SpaceSaving :: merge
+        );
+    }
+
+    /**
+     * Returns a {@code HyperLogLog} sketch of the distinct elements of the
+     * given {@code Stream}, with the given amount of registers. This is the
+     * fixed-memory counterpart of collecting the elements into a {@code Set}
+     * to count them. Parallel streams sketch each part separately, then merge
+     * the sketches.
+     *
+     * @param s The {@code Stream} whose distinct elements to count.
+     * @param registers The amount of registers of the sketch.
+     * @return A {@code HyperLogLog} sketch of the given {@code Stream}.
+     * @throws IllegalArgumentException if the amount of registers is invalid.
+     * @see HyperLogLog#HyperLogLog(int)
+     */
+    public static HyperLogLog distinct(Stream<?> s, int registers) {
+        return s.collect(
+                () -> new HyperLogLog(registers),
+                HyperLogLog :: add,
+                HyperLogLog :: merge
+        );
+    }
+
+    /**
+     * Returns a {@code HyperLogLog} sketch of the distinct values of the
+     * given {@code IntStream}, with the given amount of registers, without
+     * boxing them.
+     *
+     * @param s The {@code IntStream} whose distinct values to count.
+     * @param registers The amount of registers of the sketch.
+     * @return A {@code HyperLogLog} sketch of the given {@code IntStream}.
+     * @throws IllegalArgumentException if the amount of registers is invalid.
+     * @see HyperLogLog#HyperLogLog(int)
+     */
+    public static HyperLogLog distinct(IntStream s, int registers) {
+        return s.collect(
+                () -> new HyperLogLog(registers),
+                HyperLogLog :: add,
+                HyperLogLog :: merge
+        );
+    }
+
     /**
      * Don't let anyone instantiate this class.
      */